@@ -2,8 +2,11 @@ package com.example.clientservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// componentele de autentificare comune serviciilor sunt in service-common
+@SpringBootApplication(scanBasePackages = {"com.example.clientservice", "com.example.common.auth"})
+@EnableScheduling
 public class ClientServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ClientServiceApplication.class, args);
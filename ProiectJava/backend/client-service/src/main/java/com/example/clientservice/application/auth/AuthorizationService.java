@@ -1,8 +1,16 @@
 package com.example.clientservice.application.auth;
 
+import com.example.common.auth.GatewayIdentityVerifier;
+import com.example.common.auth.LocalTokenVerifier;
+import com.example.common.auth.RevocationSet;
+import com.example.common.auth.TokenValidationCache;
 import com.example.clientservice.domain.model.UserRole;
 import com.example.clientservice.infrastructure.adapter.out.idm.IdmAuthClient;
 import com.example.idm.grpc.ValidateTokenResponse;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -12,10 +20,30 @@ import java.util.Arrays;
 @Service
 public class AuthorizationService {
 
-    private final IdmAuthClient idmAuthClient;
+    private static final Logger log = LoggerFactory.getLogger(AuthorizationService.class);
 
-    public AuthorizationService(IdmAuthClient idmAuthClient) {
+    private final IdmAuthClient idmAuthClient;
+    private final TokenValidationCache tokenValidationCache;
+    private final LocalTokenVerifier localTokenVerifier;
+    private final RevocationSet revocationSet;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+    private final boolean localMode;
+    private final boolean revocationFailOpen;
+
+    public AuthorizationService(IdmAuthClient idmAuthClient,
+                                TokenValidationCache tokenValidationCache,
+                                LocalTokenVerifier localTokenVerifier,
+                                RevocationSet revocationSet,
+                                GatewayIdentityVerifier gatewayIdentityVerifier,
+                                @Value("${idm.auth.mode:remote}") String authMode,
+                                @Value("${idm.auth.revocation-fail-open:true}") boolean revocationFailOpen) {
         this.idmAuthClient = idmAuthClient;
+        this.tokenValidationCache = tokenValidationCache;
+        this.localTokenVerifier = localTokenVerifier;
+        this.revocationSet = revocationSet;
+        this.gatewayIdentityVerifier = gatewayIdentityVerifier;
+        this.localMode = isLocalMode(authMode, localTokenVerifier);
+        this.revocationFailOpen = revocationFailOpen;
     }
 
     public AuthenticatedUser requireUser(String authorizationHeader, UserRole... allowedRoles) {
@@ -31,10 +59,24 @@ public class AuthorizationService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Empty token");
         }
 
-        ValidateTokenResponse resp = idmAuthClient.validate(token);
+        ValidateTokenResponse resp = tokenValidationCache.get(token);
+
+        if (resp == null) {
+            resp = validateOrTrustGateway(token);
+
+            if (!resp.getValid()) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, resp.getMessage());
+            }
 
-        if (!resp.getValid()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, resp.getMessage());
+            tokenValidationCache.put(token, resp);
+        }
+
+        if (revocationSet.isRevoked(resp.getJti(), resp.getSub(), resp.getExp())) {
+            tokenValidationCache.invalidate(token);
+            throw new ResponseStatusException(
+                    HttpStatus.UNAUTHORIZED,
+                    "Sesiune expirata sau revocata. Va rugam sa va logati din nou"
+            );
         }
 
         UserRole role = UserRole.fromString(resp.getRole());
@@ -63,4 +105,63 @@ public class AuthorizationService {
 
         return new AuthenticatedUser(userId, role, token, email);
     }
+
+    private ValidateTokenResponse validateOrTrustGateway(String token) {
+        // identitatea semnata de gateway inlocuieste validarea doar cat timp revocarile sunt la zi
+        if (revocationSet.isSynced()) {
+            ValidateTokenResponse fromGateway = gatewayIdentityVerifier.verify(token);
+            if (fromGateway != null) {
+                return fromGateway;
+            }
+        }
+        return validate(token);
+    }
+
+    private ValidateTokenResponse validate(String token) {
+        if (!localMode) {
+            return idmAuthClient.validate(token);
+        }
+
+        // semnatura si expirarea se verifica local; revocarea vine din fluxul IDM sau, la nevoie, prin CheckRevoked
+        ValidateTokenResponse resp = localTokenVerifier.verify(token);
+
+        if (resp.getValid() && isRevoked(token, resp)) {
+            return ValidateTokenResponse.newBuilder()
+                    .setValid(false)
+                    .setMessage("Token is blacklisted")
+                    .build();
+        }
+
+        return resp;
+    }
+
+    private boolean isRevoked(String token, ValidateTokenResponse resp) {
+        if (revocationSet.isSynced()) {
+            return revocationSet.isRevoked(resp.getJti(), resp.getSub(), resp.getExp());
+        }
+
+        try {
+            return idmAuthClient.checkRevoked(token).getRevoked();
+        } catch (StatusRuntimeException ex) {
+            if (revocationFailOpen) {
+                log.warn("Verificarea revocarii la IDM a esuat ({}), token-ul verificat local este acceptat",
+                        ex.getStatus().getCode());
+                return false;
+            }
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Serviciul de autentificare nu este disponibil"
+            );
+        }
+    }
+
+    private static boolean isLocalMode(String authMode, LocalTokenVerifier verifier) {
+        if (!"local".equalsIgnoreCase(authMode)) {
+            return false;
+        }
+        if (!verifier.isConfigured()) {
+            throw new IllegalStateException("idm.auth.mode=local necesita idm.jwt.secret sau idm.jwt.keys");
+        }
+        return true;
+    }
 }
@@ -1,35 +1,124 @@
 package com.example.clientservice.application.auth;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.example.clientservice.infrastructure.adapter.out.idm.IdmAuthClient;
-import com.example.idm.grpc.LoginRequest;
 import com.example.idm.grpc.LoginResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-ul contului de serviciu, pastrat in memorie si reimprospatat in fundal cu
+ * idm.service.token-refresh-before-seconds inainte de expirare. Login-ul sincron ramane
+ * doar pentru pornire la rece si dupa un 401; reimprospatarile concurente se fac o singura data.
+ */
 @Component
 public class ServiceTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(ServiceTokenProvider.class);
+
+    // sub aceasta valabilitate ramasa token-ul nu mai este folosit pentru cereri noi
+    private static final long MIN_VALIDITY_SECONDS = 30;
+
+    private record CachedToken(String token, long exp) {}
+
     private final IdmAuthClient idmAuthClient;
     private final String serviceUsername;
     private final String servicePassword;
+    private final long refreshBeforeSeconds;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile CachedToken current;
 
     public ServiceTokenProvider(
             IdmAuthClient idmAuthClient,
             @Value("${idm.service.username}") String serviceUsername,
-            @Value("${idm.service.password}") String servicePassword) {
+            @Value("${idm.service.password}") String servicePassword,
+            @Value("${idm.service.token-refresh-before-seconds:300}") long refreshBeforeSeconds) {
 
         this.idmAuthClient = idmAuthClient;
         this.serviceUsername = serviceUsername;
         this.servicePassword = servicePassword;
+        this.refreshBeforeSeconds = refreshBeforeSeconds;
     }
 
     public String getServiceToken() {
+        CachedToken cached = current;
+        if (cached != null && remainingSeconds(cached) > MIN_VALIDITY_SECONDS) {
+            return cached.token();
+        }
+        return refresh(cached).token();
+    }
+
+    /** Apelat cand event-service a respins token-ul (401): se face login din nou, o singura data. */
+    public String refreshAfterRejection(String rejectedToken) {
+        CachedToken cached = current;
+        if (cached != null && !cached.token().equals(rejectedToken)) {
+            return cached.token();
+        }
+        return refresh(cached).token();
+    }
+
+    @Scheduled(fixedDelayString = "${idm.service.token-check-ms:30000}")
+    public void refreshIfExpiring() {
+        CachedToken cached = current;
+        if (cached == null || remainingSeconds(cached) > refreshBeforeSeconds) {
+            return;
+        }
+
+        try {
+            refresh(cached);
+        } catch (RuntimeException e) {
+            // token-ul vechi ramane in uz pana la urmatoarea incercare
+            log.warn("Reimprospatarea token-ului de serviciu a esuat: {}", e.getMessage());
+        }
+    }
+
+    private CachedToken refresh(CachedToken seen) {
+        refreshLock.lock();
+        try {
+            CachedToken latest = current;
+            if (latest != seen) {
+                // alt fir a reimprospatat token-ul intre timp
+                return latest;
+            }
+
+            latest = login();
+            current = latest;
+            return latest;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private CachedToken login() {
         LoginResponse resp = idmAuthClient.login(serviceUsername, servicePassword);
 
         if(!resp.getSuccess()) {
             throw new IllegalStateException("Nu ma pot loga cu userul de serviciu: " + resp.getMessage());
         }
 
-        return resp.getToken();
+        return new CachedToken(resp.getToken(), expiresAt(resp.getToken()));
+    }
+
+    private static long expiresAt(String token) {
+        try {
+            Date exp = JWT.decode(token).getExpiresAt();
+            return exp != null ? exp.toInstant().getEpochSecond() : Long.MAX_VALUE;
+        } catch (JWTDecodeException e) {
+            // token fara exp citibil: folosit pana la primul 401
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long remainingSeconds(CachedToken token) {
+        return token.exp() - Instant.now().getEpochSecond();
     }
 }
@@ -0,0 +1,39 @@
+package com.example.clientservice.application.dto;
+
+import java.time.Instant;
+
+public class WaitingRoomStatusDTO {
+
+    // WAITING, ADMITTED, EXPIRED, USED
+    private String status;
+
+    private Integer eventId;
+    private long position;
+    private long ahead;
+    private long etaSeconds;
+
+    // doar pentru status ADMITTED
+    private String purchaseToken;
+    private Instant windowExpiresAt;
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getEventId() { return eventId; }
+    public void setEventId(Integer eventId) { this.eventId = eventId; }
+
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+
+    public long getAhead() { return ahead; }
+    public void setAhead(long ahead) { this.ahead = ahead; }
+
+    public long getEtaSeconds() { return etaSeconds; }
+    public void setEtaSeconds(long etaSeconds) { this.etaSeconds = etaSeconds; }
+
+    public String getPurchaseToken() { return purchaseToken; }
+    public void setPurchaseToken(String purchaseToken) { this.purchaseToken = purchaseToken; }
+
+    public Instant getWindowExpiresAt() { return windowExpiresAt; }
+    public void setWindowExpiresAt(Instant windowExpiresAt) { this.windowExpiresAt = windowExpiresAt; }
+}
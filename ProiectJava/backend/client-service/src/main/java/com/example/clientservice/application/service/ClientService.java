@@ -3,14 +3,22 @@ package com.example.clientservice.application.service;
 import com.example.clientservice.domain.model.ClientDocument;
 import com.example.clientservice.domain.repository.ClientRepository;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
 import java.util.*;
 
 @Service
 public class ClientService {
 
+    private static final ObjectId MIN_ID = new ObjectId("000000000000000000000000");
+
     private final ClientRepository repo;
 
     public ClientService(ClientRepository repo) {
@@ -21,17 +29,37 @@ public class ClientService {
         return repo.findById(new ObjectId(id));
     }
 
-    public List<ClientDocument> findAlls(String nameLike) {
-        if (!StringUtils.hasText(nameLike)) {
-            return repo.findAll();
+    /**
+     * Clientii al caror nume sau prenume incepe cu textul dat (fara diacritice, indiferent
+     * de majuscule), ori "prenume nume"/"nume prenume" complet; paginat in baza de date.
+     */
+    public Page<ClientDocument> findAlls(String nameLike, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+        String prefix = searchPrefix(nameLike);
+
+        if (prefix == null) {
+            return repo.findAll(pageable);
         }
+        return PageableExecutionUtils.getPage(repo.findBySearchPrefix(prefix, pageable), pageable,
+                () -> repo.countBySearchPrefix(prefix));
+    }
 
-        String regex = ".*" + nameLike + ".*";
-        Set<ClientDocument> results = new LinkedHashSet<>();
-        results.addAll(repo.findByNumeLike(regex));
-        results.addAll(repo.findByPrenumeLike(regex));
+    public Slice<ClientDocument> findAllsAfter(String nameLike, ObjectId after, int size) {
+        Pageable pageable = PageRequest.of(0, size + 1, Sort.by("id"));
+        ObjectId from = after != null ? after : MIN_ID;
+        String prefix = searchPrefix(nameLike);
+
+        List<ClientDocument> rows = prefix != null
+                ? repo.findBySearchPrefixAfter(from, prefix, pageable)
+                : repo.findAfter(from, pageable);
+
+        return toSlice(rows, size);
+    }
 
-        return new ArrayList<>(results);
+    // textul normalizat contine doar litere, cifre si spatii, deci nu poate injecta operatori regex
+    private static String searchPrefix(String nameLike) {
+        String normalized = ClientDocument.normalizeName(nameLike);
+        return normalized.isEmpty() ? null : "^" + normalized;
     }
 
     public Optional<ClientDocument> findByEmail(String email) {
@@ -71,22 +99,27 @@ public class ClientService {
         repo.deleteById(new ObjectId(id));
     }
 
-    public List<ClientDocument> findClientsByEventId(Integer eventId) {
-        return repo.findAll().stream()
-                .filter(client -> client.getBilete() != null)
-                .filter(client -> client.getBilete().stream()
-                        .anyMatch(b -> "event".equals(b.getTip()) &&
-                                eventId.equals(b.getEventId())))
-                .toList();
+    public Page<ClientDocument> findPublicClientsByEventId(Integer eventId, int page, int size) {
+        return repo.findPublicByEventId(eventId, PageRequest.of(page, size, Sort.by("id")));
+    }
+
+    public Page<ClientDocument> findPublicClientsByPackageId(Integer packageId, int page, int size) {
+        return repo.findPublicByPackageId(packageId, PageRequest.of(page, size, Sort.by("id")));
+    }
+
+    public Slice<ClientDocument> findPublicClientsByEventIdAfter(Integer eventId, ObjectId after, int size) {
+        Pageable pageable = PageRequest.of(0, size + 1, Sort.by("id"));
+        return toSlice(repo.findPublicByEventIdAfter(after != null ? after : MIN_ID, eventId, pageable), size);
+    }
+
+    public Slice<ClientDocument> findPublicClientsByPackageIdAfter(Integer packageId, ObjectId after, int size) {
+        Pageable pageable = PageRequest.of(0, size + 1, Sort.by("id"));
+        return toSlice(repo.findPublicByPackageIdAfter(after != null ? after : MIN_ID, packageId, pageable), size);
     }
 
-    public List<ClientDocument> findClientsByPackageId(Integer packageId) {
-        return repo.findAll().stream()
-                .filter(client -> client.getBilete() != null)
-                .filter(client -> client.getBilete().stream()
-                        .anyMatch(b -> "package".equals(b.getTip()) &&
-                                packageId.equals(b.getPackageId())))
-                .toList();
+    private static Slice<ClientDocument> toSlice(List<ClientDocument> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
     }
 
     public void updateClientEmail(String oldEmail, String newEmail) {
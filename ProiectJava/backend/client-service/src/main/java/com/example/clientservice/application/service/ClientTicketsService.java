@@ -1,159 +1,211 @@
 package com.example.clientservice.application.service;
 
+import com.example.clientservice.application.auth.ServiceTokenProvider;
 import com.example.clientservice.infrastructure.adapter.out.event.EventApiClient;
 import com.example.clientservice.infrastructure.adapter.out.event.dto.TicketData;
 import com.example.clientservice.domain.model.ClientDocument;
 import com.example.clientservice.domain.model.TicketRef;
-import com.example.clientservice.domain.repository.ClientRepository;
-import org.checkerframework.checker.units.qual.C;
+import com.example.clientservice.domain.repository.ReactiveClientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 import java.util.*;
-
+import java.util.function.Function;
+
+/**
+ * Biletele clientilor, complet reactiv: documentul clientului vine din Mongo reactiv,
+ * iar detaliile biletelor sunt cerute de la event-service prin POST /tickets/lookup,
+ * cate client.tickets.lookup-chunk coduri per cerere, cel mult
+ * client.tickets.fetch-concurrency cereri simultane, pastrand ordinea biletelor.
+ */
 @Service
 public class ClientTicketsService {
 
-    private final ClientRepository repo;
+    private final ReactiveClientRepository repo;
+    private final ReactiveMongoTemplate mongoTemplate;
     private final EventApiClient eventApiClient;
-
-    public ClientTicketsService(ClientRepository repo, EventApiClient eventApiClient) {
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final int fetchConcurrency;
+    private final int lookupChunk;
+
+    public ClientTicketsService(ReactiveClientRepository repo,
+                                ReactiveMongoTemplate mongoTemplate,
+                                EventApiClient eventApiClient,
+                                ServiceTokenProvider serviceTokenProvider,
+                                @Value("${client.tickets.fetch-concurrency:4}") int fetchConcurrency,
+                                @Value("${client.tickets.lookup-chunk:100}") int lookupChunk) {
         this.repo = repo;
+        this.mongoTemplate = mongoTemplate;
         this.eventApiClient = eventApiClient;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.fetchConcurrency = fetchConcurrency;
+        this.lookupChunk = lookupChunk;
     }
 
-    public Optional<TicketData> validateTicket(
+    public Mono<Boolean> clientExists(String email) {
+        return repo.findByEmail(email).hasElement();
+    }
+
+    public Mono<TicketData> validateTicket(
             String email,
             String cod,
             boolean saveIfValid,
             String authorizationHeader) {
 
-        TicketData data = eventApiClient.validateAndFetchTicket(cod, authorizationHeader);
-
-        if (data == null) {
-            throw new RuntimeException("Biletul nu a fost gasit.");
-        }
-
-        TicketRef ref = new TicketRef();
-        ref.setCod(cod);
-
-        if (data.getEvent() != null) {
-            ref.setTip("event");
-            ref.setEventId(data.getEvent().getId());
-        } else if (data.get_package() != null) {
-            ref.setTip("package");
-            ref.setPackageId(data.get_package().getId());
-        } else {
-            throw new RuntimeException("Bilet invalid.");
-        }
-
-        if (saveIfValid) {
-            ClientDocument client = repo.findByEmail(email).orElse(null);
-
-            if (client == null) {
-                client = new ClientDocument();
-                client.setEmail(email);
-                client.setBilete(new ArrayList<>());
-            }
-
-            client.getBilete().add(ref);
-            repo.save(client);
-        }
-
-        return Optional.of(data);
+        return eventApiClient.validateAndFetchTicket(cod, authorizationHeader)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Biletul nu a fost gasit.")))
+                .flatMap(data -> {
+                    TicketRef ref = new TicketRef();
+                    ref.setCod(cod);
+
+                    if (data.getEvent() != null) {
+                        ref.setTip("event");
+                        ref.setEventId(data.getEvent().getId());
+                    } else if (data.get_package() != null) {
+                        ref.setTip("package");
+                        ref.setPackageId(data.get_package().getId());
+                    } else {
+                        return Mono.error(new RuntimeException("Bilet invalid."));
+                    }
+
+                    if (!saveIfValid) {
+                        return Mono.just(data);
+                    }
+                    return addTicket(email, ref).thenReturn(data);
+                });
     }
 
-    public List<TicketData> listDetailedTickets(
+    // gol daca clientul nu exista
+    public Mono<List<TicketData>> listDetailedTickets(
             String email,
             String authorizationHeader) {
 
-        ClientDocument client = repo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Clientul nu a fost gasit."));
-
-        List<TicketData> result = new ArrayList<>();
-
-        for (TicketRef ref : client.getBilete()) {
-            TicketData data = eventApiClient.validateAndFetchTicket(ref.getCod(), authorizationHeader);
-            if (data != null) {
-                result.add(data);
-            }
-        }
-
-        return result;
+        return repo.findByEmail(email)
+                .flatMap(client -> fetchTickets(client.getBilete(), authorizationHeader));
     }
 
-    public TicketData buyTicketForEvent(String email, Integer eventId, String serviceToken) {
-
-        TicketData data = eventApiClient.createTicketForEvent(eventId, serviceToken);
-
-        if(data == null) {
-            throw new RuntimeException("Nu s-a putut crea biletul pentru eveniment.");
-        }
-
-        TicketRef ref = new TicketRef();
-        ref.setCod(data.getCod());
-        ref.setTip("event");
-        ref.setEventId(eventId);
-
-        ClientDocument client = repo.findByEmail(email).orElse(null);
+    public Mono<Slice<TicketData>> listDetailedTicketsAfter(
+            String email,
+            String afterCod,
+            int size,
+            String authorizationHeader) {
 
-        if(client == null) {
-            client = new ClientDocument();
-            client.setEmail(email);
-            client.setBilete(new ArrayList<>());
-        }
+        return repo.findByEmail(email).flatMap(client -> {
+            // ordonate dupa cod; doar biletele paginii curente sunt cerute de la event-service
+            List<TicketRef> refs = client.getBilete().stream()
+                    .filter(ref -> ref.getCod() != null)
+                    .filter(ref -> afterCod == null || ref.getCod().compareTo(afterCod) > 0)
+                    .sorted(Comparator.comparing(TicketRef::getCod))
+                    .limit(size + 1L)
+                    .toList();
 
-        client.getBilete().add(ref);
-        repo.save(client);
+            boolean hasNext = refs.size() > size;
 
-        return data;
+            return fetchTickets(hasNext ? refs.subList(0, size) : refs, authorizationHeader)
+                    .<Slice<TicketData>>map(result -> new SliceImpl<>(result, PageRequest.of(0, size), hasNext));
+        });
     }
 
-    public TicketData buyTicketForPackage(String email, Integer packageId, String serviceToken) {
-
-        TicketData data = eventApiClient.createTicketForPackage(packageId, serviceToken);
-
-        if(data == null) {
-            throw new RuntimeException("Nu s-a putut crea biletul pentru pachet.");
+    private Mono<List<TicketData>> fetchTickets(List<TicketRef> refs, String authorizationHeader) {
+        if (refs == null || refs.isEmpty()) {
+            return Mono.just(List.of());
         }
+        return Flux.fromIterable(refs)
+                .map(TicketRef::getCod)
+                .filter(Objects::nonNull)
+                .buffer(lookupChunk)
+                .flatMapSequential(coduri -> eventApiClient.lookupTickets(coduri, authorizationHeader), fetchConcurrency)
+                .flatMapIterable(tickets -> tickets)
+                .collectList();
+    }
 
-        TicketRef ref = new TicketRef();
-        ref.setCod(data.getCod());
-        ref.setTip("package");
-        ref.setPackageId(packageId);
+    public Mono<TicketData> buyTicketForEvent(String email, Integer eventId) {
+        return buyTicketForEvent(email, eventId, () -> {});
+    }
 
-        ClientDocument client = repo.findByEmail(email).orElse(null);
+    /**
+     * Ca {@link #buyTicketForEvent(String, Integer)}; onIssued ruleaza imediat ce event-service
+     * a emis biletul, inainte de salvarea lui la client.
+     */
+    public Mono<TicketData> buyTicketForEvent(String email, Integer eventId, Runnable onIssued) {
+
+        return withServiceToken(token -> eventApiClient.createTicketForEvent(eventId, token))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Nu s-a putut crea biletul pentru eveniment.")))
+                .doOnNext(data -> onIssued.run())
+                .flatMap(data -> {
+                    TicketRef ref = new TicketRef();
+                    ref.setCod(data.getCod());
+                    ref.setTip("event");
+                    ref.setEventId(eventId);
+
+                    return addTicket(email, ref).thenReturn(data);
+                });
+    }
 
-        if(client == null) {
-            client = new ClientDocument();
-            client.setEmail(email);
-            client.setBilete(new ArrayList<>());
-        }
+    public Mono<TicketData> buyTicketForPackage(String email, Integer packageId) {
 
-        client.getBilete().add(ref);
-        repo.save(client);
+        return withServiceToken(token -> eventApiClient.createTicketForPackage(packageId, token))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Nu s-a putut crea biletul pentru pachet.")))
+                .flatMap(data -> {
+                    TicketRef ref = new TicketRef();
+                    ref.setCod(data.getCod());
+                    ref.setTip("package");
+                    ref.setPackageId(packageId);
 
-        return data;
+                    return addTicket(email, ref).thenReturn(data);
+                });
     }
 
-    public void deleteTicketEverywhere(String cod, String authorizationHeader) {
-        eventApiClient.deleteTicket(cod, authorizationHeader);
-
-        List<ClientDocument> allClients = repo.findAll();
-
-        for (ClientDocument client : allClients) {
-            if (client.getBilete() == null || client.getBilete().isEmpty()) {
-                continue;
-            }
+    /**
+     * Apel catre event-service cu token-ul de serviciu din cache; daca este respins (401),
+     * se reia o singura data cu un token nou. Login-ul blocant nu ruleaza pe firele Netty.
+     */
+    private <T> Mono<T> withServiceToken(Function<String, Mono<T>> call) {
+        return Mono.fromCallable(serviceTokenProvider::getServiceToken)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(token -> call.apply(token)
+                        .onErrorResume(e -> e instanceof ResponseStatusException rse
+                                        && rse.getStatusCode() == HttpStatus.UNAUTHORIZED,
+                                e -> Mono.fromCallable(() -> serviceTokenProvider.refreshAfterRejection(token))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                                        .flatMap(call)));
+    }
 
-            List<TicketRef> filtered = client.getBilete().stream()
-                    .filter(t -> !cod.equals(t.getCod()))
-                    .toList();
+    /**
+     * Un singur upsert cu $push: primul bilet al unui client nou creeaza documentul, fara
+     * citire prealabila. Doua upsert-uri simultane pentru acelasi email se pot ciocni pe indexul
+     * unic; cel respins se reia o data si gaseste documentul creat de celalalt.
+     */
+    private Mono<Void> addTicket(String email, TicketRef ref) {
+        Query query = Query.query(Criteria.where("email").is(email));
+        Update update = new Update()
+                .push("bilete", ref)
+                .setOnInsert("isPublic", false)
+                .setOnInsert("cautare", List.of());
+
+        return mongoTemplate.upsert(query, update, ClientDocument.class)
+                .retryWhen(Retry.max(1).filter(DuplicateKeyException.class::isInstance))
+                .then();
+    }
 
-            if (filtered.size() != client.getBilete().size()) {
-                client.setBilete(filtered);
-                repo.save(client);
-            }
-        }
+    public Mono<Void> deleteTicketEverywhere(String cod, String authorizationHeader) {
+        return eventApiClient.deleteTicket(cod, authorizationHeader)
+                .then(repo.pullTicketByCod(cod))
+                .then();
     }
 
 }
@@ -0,0 +1,306 @@
+package com.example.clientservice.application.service;
+
+import com.example.clientservice.application.dto.WaitingRoomStatusDTO;
+import com.example.clientservice.domain.model.WaitingRoomDocument;
+import com.example.clientservice.domain.repository.WaitingRoomRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sala de asteptare pentru evenimentele cu cerere mare (waiting-room.events sau marcate de admin;
+ * marcajele adminului sunt salvate in colectia waiting_rooms si reincarcate la pornire).
+ * Fiecare client intrat in coada primeste momentul admiterii: cel mult
+ * waiting-room.admit-per-second clienti pe secunda, in ordinea intrarii, fara fir separat.
+ * Odata admis, clientul are waiting-room.window-seconds pentru o singura cumparare, cu
+ * token-ul primit la interogare. Coada este tinuta in memoria instantei; cine nu mai
+ * interogheaza timp de waiting-room.idle-minutes iese din coada. Numarul de intrari este
+ * limitat exact (waiting-room.max-entries): peste limita intrarile noi sunt refuzate, cele
+ * existente nu sunt niciodata scoase pentru a face loc.
+ * <p>
+ * Ritmul de admitere, coada si ferestrele de cumparare sunt locale, deci client-service ruleaza
+ * intr-o singura instanta: N replici ar admite de N ori ritmul configurat. Regula este impusa
+ * de {@link com.example.clientservice.infrastructure.config.SingleInstanceLease}.
+ */
+@Service
+public class WaitingRoomService {
+
+    public static final String WAITING = "WAITING";
+    public static final String ADMITTED = "ADMITTED";
+    public static final String EXPIRED = "EXPIRED";
+    public static final String USED = "USED";
+
+    private final Set<Integer> highDemand = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Room> rooms = new ConcurrentHashMap<>();
+    private final WaitingRoomRepository repository;
+    private final Cache<String, Entry> entries;
+    // intrarile prezente in entries, numarate exact (estimatedSize este aproximativ)
+    private final AtomicLong size = new AtomicLong();
+    private final LongSupplier nanoClock;
+    private final long intervalNanos;
+    private final long windowNanos;
+    private final long maxEntries;
+
+    @Autowired
+    public WaitingRoomService(@Value("${waiting-room.events:}") String events,
+                              @Value("${waiting-room.admit-per-second:20}") double admitPerSecond,
+                              @Value("${waiting-room.window-seconds:120}") long windowSeconds,
+                              @Value("${waiting-room.max-entries:200000}") long maxEntries,
+                              @Value("${waiting-room.idle-minutes:10}") long idleMinutes,
+                              WaitingRoomRepository repository,
+                              MeterRegistry meterRegistry) {
+        this(events, admitPerSecond, windowSeconds, maxEntries, idleMinutes, repository, meterRegistry, System::nanoTime);
+    }
+
+    WaitingRoomService(String events, double admitPerSecond, long windowSeconds, long maxEntries,
+                       long idleMinutes, WaitingRoomRepository repository, MeterRegistry meterRegistry,
+                       LongSupplier nanoClock) {
+        if (admitPerSecond <= 0) {
+            throw new IllegalArgumentException("waiting-room.admit-per-second trebuie sa fie pozitiv");
+        }
+        for (String id : events.split(",")) {
+            if (!id.isBlank()) {
+                highDemand.add(Integer.valueOf(id.trim()));
+            }
+        }
+        for (WaitingRoomDocument room : repository.findAll()) {
+            highDemand.add(room.getEventId());
+        }
+
+        this.repository = repository;
+
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / admitPerSecond);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        // fara maximumSize: limita se aplica la intrare; notificarea ruleaza sincron, deci size ramane exact
+        this.entries = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .ticker(nanoClock::getAsLong)
+                .executor(Runnable::run)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        size.decrementAndGet();
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "waiting-room.entries");
+        meterRegistry.gauge("waiting-room.size", size);
+    }
+
+    public boolean isHighDemand(Integer eventId) {
+        return highDemand.contains(eventId);
+    }
+
+    public Set<Integer> highDemandEvents() {
+        return new TreeSet<>(highDemand);
+    }
+
+    // salvat inainte de activare: un marcaj raspuns cu 204 nu se pierde la repornire
+    public void enable(Integer eventId) {
+        repository.save(new WaitingRoomDocument(eventId, Instant.now()));
+        highDemand.add(eventId);
+    }
+
+    // vanzarea revine la cumpararea directa; coada evenimentului se goleste.
+    // Evenimentele din waiting-room.events raman in sala de asteptare dupa repornire.
+    public void disable(Integer eventId) {
+        repository.deleteById(eventId);
+        highDemand.remove(eventId);
+        rooms.remove(eventId);
+        String prefix = eventId + "|";
+        entries.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Intrarea in coada; repetata, pastreaza locul. Dupa o fereastra folosita sau expirata
+     * clientul este pus din nou la coada.
+     */
+    public WaitingRoomStatusDTO join(Integer eventId, Integer userId) {
+        requireHighDemand(eventId);
+
+        long now = nanoClock.getAsLong();
+        Entry entry = entries.asMap().compute(key(eventId, userId), (k, current) -> {
+            if (current != null && !current.isFinished(now, windowNanos)) {
+                return current;
+            }
+            // o intrare terminata este inlocuita pe acelasi loc; doar clientii noi ocupa un loc in plus
+            if (current == null && !reserveSlot()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Sala de asteptare este plina, reincercati mai tarziu");
+            }
+            return rooms.computeIfAbsent(eventId, id -> new Room()).enqueue(now, intervalNanos);
+        });
+
+        return toStatus(eventId, entry, now);
+    }
+
+    public WaitingRoomStatusDTO status(Integer eventId, Integer userId) {
+        requireHighDemand(eventId);
+        return toStatus(eventId, requireEntry(eventId, userId), nanoClock.getAsLong());
+    }
+
+    public void leave(Integer eventId, Integer userId) {
+        entries.invalidate(key(eventId, userId));
+    }
+
+    /**
+     * Rezerva fereastra de cumparare a clientului pentru o cerere in curs; se incheie cu
+     * {@link #finish(Integer, Integer, boolean)}.
+     */
+    public void claim(Integer eventId, Integer userId, String purchaseToken) {
+        Entry entry = entries.getIfPresent(key(eventId, userId));
+        long now = nanoClock.getAsLong();
+
+        if (entry == null || purchaseToken == null || !entry.matches(purchaseToken)
+                || !ADMITTED.equals(entry.status(now, windowNanos))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Evenimentul are sala de asteptare: este necesara o fereastra de cumparare valida");
+        }
+        if (!entry.state.compareAndSet(Entry.AVAILABLE, Entry.PURCHASING)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Fereastra de cumparare este deja folosita");
+        }
+    }
+
+    public void finish(Integer eventId, Integer userId, boolean purchased) {
+        Entry entry = entries.getIfPresent(key(eventId, userId));
+        if (entry != null) {
+            entry.state.compareAndSet(Entry.PURCHASING, purchased ? Entry.USED : Entry.AVAILABLE);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            long current = size.get();
+            if (current >= maxEntries) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void requireHighDemand(Integer eventId) {
+        if (!isHighDemand(eventId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Evenimentul nu are sala de asteptare");
+        }
+    }
+
+    private Entry requireEntry(Integer eventId, Integer userId) {
+        Entry entry = entries.getIfPresent(key(eventId, userId));
+        if (entry == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Nu sunteti in coada pentru acest eveniment");
+        }
+        return entry;
+    }
+
+    private WaitingRoomStatusDTO toStatus(Integer eventId, Entry entry, long now) {
+        WaitingRoomStatusDTO dto = new WaitingRoomStatusDTO();
+        String status = entry.status(now, windowNanos);
+
+        dto.setStatus(status);
+        dto.setEventId(eventId);
+        dto.setPosition(entry.position);
+
+        if (WAITING.equals(status)) {
+            long waitNanos = entry.admitAt - now;
+            dto.setAhead((waitNanos + intervalNanos - 1) / intervalNanos);
+            dto.setEtaSeconds((waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        } else if (ADMITTED.equals(status)) {
+            dto.setPurchaseToken(entry.purchaseToken);
+            dto.setWindowExpiresAt(Instant.now().plusNanos(entry.admitAt + windowNanos - now));
+        }
+
+        return dto;
+    }
+
+    private static String key(Integer eventId, Integer userId) {
+        return eventId + "|" + userId;
+    }
+
+    private static final class Room {
+
+        private final AtomicLong lastPosition = new AtomicLong();
+        // momentul (System.nanoTime) la care a fost admis ultimul client din coada
+        private final AtomicLong lastAdmitAt = new AtomicLong(Long.MIN_VALUE);
+
+        Entry enqueue(long now, long intervalNanos) {
+            while (true) {
+                long last = lastAdmitAt.get();
+                // dupa o perioada fara cereri nu se acumuleaza locuri: ritmul ramane cel configurat
+                long admitAt = last == Long.MIN_VALUE || last + intervalNanos - now < 0 ? now : last + intervalNanos;
+                if (lastAdmitAt.compareAndSet(last, admitAt)) {
+                    return new Entry(lastPosition.incrementAndGet(), admitAt);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        static final int AVAILABLE = 0;
+        static final int PURCHASING = 1;
+        static final int USED = 2;
+
+        final long position;
+        final long admitAt;
+        final String purchaseToken = UUID.randomUUID().toString();
+        final AtomicInteger state = new AtomicInteger(AVAILABLE);
+
+        Entry(long position, long admitAt) {
+            this.position = position;
+            this.admitAt = admitAt;
+        }
+
+        String status(long now, long windowNanos) {
+            if (state.get() == USED) {
+                return WaitingRoomService.USED;
+            }
+            if (now - admitAt < 0) {
+                return WAITING;
+            }
+            // o cumparare inceputa in fereastra se poate termina si dupa expirarea ei
+            if (now - admitAt >= windowNanos && state.get() == AVAILABLE) {
+                return EXPIRED;
+            }
+            return ADMITTED;
+        }
+
+        boolean isFinished(long now, long windowNanos) {
+            String status = status(now, windowNanos);
+            return EXPIRED.equals(status) || WaitingRoomService.USED.equals(status);
+        }
+
+        boolean matches(String token) {
+            return MessageDigest.isEqual(purchaseToken.getBytes(StandardCharsets.UTF_8),
+                    token.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -4,11 +4,16 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.text.Normalizer;
 import java.util.*;
+import java.util.regex.Pattern;
 
 @Document(collection = "clients")
 public class ClientDocument {
 
+    private static final Pattern DIACRITICE = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORI = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     @Id
     private ObjectId id;
 
@@ -20,6 +25,10 @@ public class ClientDocument {
 
     private List<TicketRef> bilete = new ArrayList<>();
 
+    // termenii de cautare dupa nume: cuvintele din nume/prenume si numele complet in ambele
+    // ordini, cu litere mici si fara diacritice; recalculati la fiecare salvare
+    private List<String> cautare = new ArrayList<>();
+
     public ClientDocument() {}
 
     public String getId() { return id != null ? id.toHexString() : null;}
@@ -45,4 +54,40 @@ public class ClientDocument {
 
     public List<TicketRef> getBilete() { return bilete; }
     public void setBilete(List<TicketRef> bilete) { this.bilete = bilete; }
+
+    public List<String> getCautare() { return cautare; }
+    public void setCautare(List<String> cautare) { this.cautare = cautare; }
+
+    public void refreshCautare() {
+        this.cautare = searchTerms(nume, prenume);
+    }
+
+    public static List<String> searchTerms(String nume, String prenume) {
+        String n = normalizeName(nume);
+        String p = normalizeName(prenume);
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (String part : (n + " " + p).split(" ")) {
+            if (!part.isEmpty()) {
+                terms.add(part);
+            }
+        }
+        if (!n.isEmpty() && !p.isEmpty()) {
+            terms.add(n + " " + p);
+            terms.add(p + " " + n);
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Forma folosita la cautare: fara diacritice, cu litere mici si cu orice alt
+     * caracter inlocuit de un singur spatiu (deci fara caractere speciale de regex).
+     */
+    public static String normalizeName(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = DIACRITICE.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORI.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.clientservice.domain.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// evenimentele marcate de admin ca avand cerere mare; supravietuiesc repornirii serviciului
+@Document(collection = "waiting_rooms")
+public class WaitingRoomDocument {
+
+    @Id
+    private Integer eventId;
+
+    private Instant activatLa;
+
+    public WaitingRoomDocument() {}
+
+    public WaitingRoomDocument(Integer eventId, Instant activatLa) {
+        this.eventId = eventId;
+        this.activatLa = activatLa;
+    }
+
+    public Integer getEventId() { return eventId; }
+    public void setEventId(Integer eventId) { this.eventId = eventId; }
+
+    public Instant getActivatLa() { return activatLa; }
+    public void setActivatLa(Instant activatLa) { this.activatLa = activatLa; }
+}
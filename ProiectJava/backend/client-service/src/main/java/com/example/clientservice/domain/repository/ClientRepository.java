@@ -2,6 +2,8 @@ package com.example.clientservice.domain.repository;
 
 import com.example.clientservice.domain.model.ClientDocument;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
@@ -11,9 +13,36 @@ public interface ClientRepository extends MongoRepository<ClientDocument, Object
 
     Optional<ClientDocument> findByEmail(String email);
 
-    @Query("{ 'nume': { $regex: ?0, $options: 'i' } }")
-    List<ClientDocument> findByNumeLike(String regex);
+    // cautare dupa nume: prefix ancorat (^...) pe termenii normalizati, citit din indexul cautare_id.
+    // Indexul este multikey, deci nu da randurile in ordinea _id: se sorteaza doar potrivirile
+    // (top-k, cat pagina), iar cursorul _id > after intra in limitele indexului pe al doilea camp.
+    // Un termen rar sau inexistent citeste astfel doar cheile lui, nu toata colectia.
 
-    @Query("{ 'prenume': { $regex: ?0, $options: 'i' } }")
-    List<ClientDocument> findByPrenumeLike(String regex);
+    @Query("{ 'cautare': { $regex: ?0 } }")
+    List<ClientDocument> findBySearchPrefix(String prefixRegex, Pageable pageable);
+
+    @Query(value = "{ 'cautare': { $regex: ?0 } }", count = true)
+    long countBySearchPrefix(String prefixRegex);
+
+    // clientii publici cu bilete la un eveniment / pachet, paginati in baza de date
+
+    @Query("{ 'isPublic': true, 'bilete': { $elemMatch: { 'tip': 'event', 'eventId': ?0 } } }")
+    Page<ClientDocument> findPublicByEventId(Integer eventId, Pageable pageable);
+
+    @Query("{ 'isPublic': true, 'bilete': { $elemMatch: { 'tip': 'package', 'packageId': ?0 } } }")
+    Page<ClientDocument> findPublicByPackageId(Integer packageId, Pageable pageable);
+
+    // paginare dupa cheie: documentele cu _id mai mare decat ultimul vazut
+
+    @Query("{ '_id': { $gt: ?0 } }")
+    List<ClientDocument> findAfter(ObjectId after, Pageable pageable);
+
+    @Query("{ '_id': { $gt: ?0 }, 'cautare': { $regex: ?1 } }")
+    List<ClientDocument> findBySearchPrefixAfter(ObjectId after, String prefixRegex, Pageable pageable);
+
+    @Query("{ '_id': { $gt: ?0 }, 'isPublic': true, 'bilete': { $elemMatch: { 'tip': 'event', 'eventId': ?1 } } }")
+    List<ClientDocument> findPublicByEventIdAfter(ObjectId after, Integer eventId, Pageable pageable);
+
+    @Query("{ '_id': { $gt: ?0 }, 'isPublic': true, 'bilete': { $elemMatch: { 'tip': 'package', 'packageId': ?1 } } }")
+    List<ClientDocument> findPublicByPackageIdAfter(ObjectId after, Integer packageId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.clientservice.domain.repository;
+
+import com.example.clientservice.domain.model.ClientDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveClientRepository extends ReactiveMongoRepository<ClientDocument, ObjectId> {
+
+    Mono<ClientDocument> findByEmail(String email);
+
+    // un singur updateMany cu $pull, folosind indexul pe bilete.cod; intoarce numarul de clienti modificati
+    @Query("{ 'bilete.cod': ?0 }")
+    @Update("{ '$pull': { 'bilete': { 'cod': ?0 } } }")
+    Mono<Long> pullTicketByCod(String cod);
+}
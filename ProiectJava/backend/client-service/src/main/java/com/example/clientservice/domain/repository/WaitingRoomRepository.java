@@ -0,0 +1,7 @@
+package com.example.clientservice.domain.repository;
+
+import com.example.clientservice.domain.model.WaitingRoomDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface WaitingRoomRepository extends MongoRepository<WaitingRoomDocument, Integer> {
+}
@@ -1,5 +1,6 @@
 package com.example.clientservice.infrastructure.adapter.in.rest;
 
+import com.example.common.web.CursorPages;
 import com.example.clientservice.application.auth.AuthenticatedUser;
 import com.example.clientservice.application.auth.AuthorizationService;
 import com.example.clientservice.domain.model.UserRole;
@@ -7,6 +8,7 @@ import com.example.clientservice.application.dto.ClientDTO;
 import com.example.clientservice.application.mapper.ClientMapper;
 import com.example.clientservice.domain.model.ClientDocument;
 import com.example.clientservice.application.service.ClientService;
+import org.bson.types.ObjectId;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,17 +16,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
@@ -53,7 +51,7 @@ public class ClientCrudController {
         return model;
     }
 
-    @Operation(summary = "Listare clienti")
+    @Operation(summary = "Listare clienti", description = "Cu parametrul cursor (gol pentru prima pagina) paginarea se face dupa cheie, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Lista de clienti a fost returnata.")
     @GetMapping
     public ResponseEntity<PagedModel<EntityModel<ClientDTO>>> getClients(
@@ -61,6 +59,7 @@ public class ClientCrudController {
             @RequestParam(required = false) String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             PagedResourcesAssembler<ClientDTO> assembler) {
 
         AuthenticatedUser current = authorizationService.requireUser(
@@ -68,17 +67,15 @@ public class ClientCrudController {
                 UserRole.ADMIN
         );
 
-        List<ClientDocument> all = clientService.findAlls(name);
-
-        int start = page * size;
-        int end = Math.min(start + size, all.size());
-        List<ClientDocument> sublist = start >= all.size() ? List.of() : all.subList(start, end);
-
-        List<ClientDTO> dtos = sublist.stream()
-                .map(ClientMapper::toDTO)
-                .collect(Collectors.toList());
+        if (cursor != null) {
+            var slice = clientService.findAllsAfter(name, CursorPages.decode(cursor, ObjectId::new), size)
+                    .map(ClientMapper::toDTO);
+            PagedModel<EntityModel<ClientDTO>> pagedModel = CursorPages.toModel(slice, this::toModel, ClientDTO::getId);
+            pagedModel.add(linkTo(ClientCrudController.class).withRel("parent"));
+            return ResponseEntity.ok(pagedModel);
+        }
 
-        PageImpl<ClientDTO> pageObj = new PageImpl<>(dtos, PageRequest.of(page, size), all.size());
+        Page<ClientDTO> pageObj = clientService.findAlls(name, page, size).map(ClientMapper::toDTO);
         PagedModel<EntityModel<ClientDTO>> pagedModel = assembler.toModel(pageObj, this::toModel);
         pagedModel.add(linkTo(ClientCrudController.class).withRel("parent"));
 
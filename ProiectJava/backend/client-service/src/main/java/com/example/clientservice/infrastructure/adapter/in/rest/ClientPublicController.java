@@ -1,28 +1,25 @@
 package com.example.clientservice.infrastructure.adapter.in.rest;
 
+import com.example.common.web.CursorPages;
 import com.example.clientservice.application.auth.AuthenticatedUser;
 import com.example.clientservice.application.auth.AuthorizationService;
 import com.example.clientservice.domain.model.UserRole;
 import com.example.clientservice.application.mapper.ClientMapper;
-import com.example.clientservice.domain.model.ClientDocument;
 import com.example.clientservice.application.service.ClientService;
 import com.example.clientservice.application.dto.PublicClientDTO;
+import org.bson.types.ObjectId;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 
 @RestController
@@ -49,7 +46,7 @@ public class ClientPublicController {
         return model;
     }
 
-    @Operation(summary = "Lista paginata de clienti publici la un eveniment")
+    @Operation(summary = "Lista paginata de clienti publici la un eveniment", description = "Cu parametrul cursor (gol pentru prima pagina) paginarea se face dupa cheie, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Lista de clienti a fost returnata.")
     @ApiResponse(responseCode = "404", description = "Evenimentul nu a fost gasit.")
     @GetMapping("/by-event/{eventId}")
@@ -58,6 +55,7 @@ public class ClientPublicController {
             @RequestHeader(name = "Authorization", required = false) String authorizationHeader,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             PagedResourcesAssembler<PublicClientDTO> assembler) {
 
         AuthenticatedUser current = authorizationService.requireUser(
@@ -65,16 +63,17 @@ public class ClientPublicController {
                 UserRole.ADMIN, UserRole.OWNER_EVENT
         );
 
-        List<ClientDocument> all = clientService.findClientsByEventId(eventId).stream()
-                .filter(ClientDocument::isPublic)
-                .toList();
-
-        int start = page * size;
-        int end = Math.min(start + size, all.size());
-        List<ClientDocument> sublist = start >= all.size() ? List.of() : all.subList(start, end);
+        if (cursor != null) {
+            var slice = clientService.findPublicClientsByEventIdAfter(eventId, CursorPages.decode(cursor, ObjectId::new), size)
+                    .map(ClientMapper::toPublicDTO);
+            PagedModel<EntityModel<PublicClientDTO>> pagedModel =
+                    CursorPages.toModel(slice, dto -> toPublicModel(dto, "event", eventId), PublicClientDTO::getId);
+            pagedModel.add(linkTo(ClientPublicController.class).slash("by-event").slash(eventId).withRel("parent"));
+            return ResponseEntity.ok(pagedModel);
+        }
 
-        List<PublicClientDTO> dtos = sublist.stream().map(ClientMapper::toPublicDTO).collect(Collectors.toList());
-        PageImpl<PublicClientDTO> pageObj = new PageImpl<>(dtos, PageRequest.of(page, size), all.size());
+        Page<PublicClientDTO> pageObj = clientService.findPublicClientsByEventId(eventId, page, size)
+                .map(ClientMapper::toPublicDTO);
 
         PagedModel<EntityModel<PublicClientDTO>> pagedModel = assembler.toModel(pageObj, dto -> toPublicModel(dto, "event", eventId));
         pagedModel.add(linkTo(ClientPublicController.class).slash("by-event").slash(eventId).withRel("parent"));
@@ -82,7 +81,7 @@ public class ClientPublicController {
         return ResponseEntity.ok(pagedModel);
     }
 
-    @Operation(summary = "Lista paginata de clienti publici la un pachet")
+    @Operation(summary = "Lista paginata de clienti publici la un pachet", description = "Cu parametrul cursor (gol pentru prima pagina) paginarea se face dupa cheie, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Lista de clienti a fost returnata.")
     @ApiResponse(responseCode = "404", description = "Pachetul nu a fost gasit.")
     @GetMapping("/by-package/{packageId}")
@@ -91,6 +90,7 @@ public class ClientPublicController {
             @RequestHeader(name = "Authorization", required = false) String authorizationHeader,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             PagedResourcesAssembler<PublicClientDTO> assembler) {
 
         AuthenticatedUser current = authorizationService.requireUser(
@@ -98,16 +98,17 @@ public class ClientPublicController {
                 UserRole.ADMIN, UserRole.OWNER_EVENT
         );
 
-        List<ClientDocument> all = clientService.findClientsByPackageId(packageId).stream()
-                .filter(ClientDocument::isPublic)
-                .toList();
-
-        int start = page * size;
-        int end = Math.min(start + size, all.size());
-        List<ClientDocument> sublist = start >= all.size() ? List.of() : all.subList(start, end);
+        if (cursor != null) {
+            var slice = clientService.findPublicClientsByPackageIdAfter(packageId, CursorPages.decode(cursor, ObjectId::new), size)
+                    .map(ClientMapper::toPublicDTO);
+            PagedModel<EntityModel<PublicClientDTO>> pagedModel =
+                    CursorPages.toModel(slice, dto -> toPublicModel(dto, "package", packageId), PublicClientDTO::getId);
+            pagedModel.add(linkTo(ClientPublicController.class).slash("by-package").slash(packageId).withRel("parent"));
+            return ResponseEntity.ok(pagedModel);
+        }
 
-        List<PublicClientDTO> dtos = sublist.stream().map(ClientMapper::toPublicDTO).collect(Collectors.toList());
-        PageImpl<PublicClientDTO> pageObj = new PageImpl<>(dtos, PageRequest.of(page, size), all.size());
+        Page<PublicClientDTO> pageObj = clientService.findPublicClientsByPackageId(packageId, page, size)
+                .map(ClientMapper::toPublicDTO);
 
         PagedModel<EntityModel<PublicClientDTO>> pagedModel = assembler.toModel(pageObj, dto -> toPublicModel(dto, "package", packageId));
         pagedModel.add(linkTo(ClientPublicController.class).slash("by-package").slash(packageId).withRel("parent"));
@@ -1,12 +1,12 @@
 package com.example.clientservice.infrastructure.adapter.in.rest;
 
+import com.example.common.web.CursorPages;
 import com.example.clientservice.application.auth.AuthenticatedUser;
 import com.example.clientservice.application.auth.AuthorizationService;
-import com.example.clientservice.application.auth.ServiceTokenProvider;
-import com.example.clientservice.application.service.ClientService;
 import com.example.clientservice.domain.model.UserRole;
 import com.example.clientservice.infrastructure.adapter.out.event.dto.TicketData;
 import com.example.clientservice.application.service.ClientTicketsService;
+import com.example.clientservice.application.service.WaitingRoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,14 +14,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 import java.util.List;
+import java.util.function.Function;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 
@@ -37,10 +43,7 @@ public class ClientTicketsController {
     private AuthorizationService authorizationService;
 
     @Autowired
-    private ServiceTokenProvider serviceTokenProvider;
-
-    @Autowired
-    private ClientService clientService;
+    private WaitingRoomService waitingRoomService;
 
     private EntityModel<TicketData> toModel(TicketData data, String email) {
         EntityModel<TicketData> model = EntityModel.of(data);
@@ -48,6 +51,23 @@ public class ClientTicketsController {
         return model;
     }
 
+    /**
+     * Link-urile HATEOAS se construiesc din cererea curenta, care nu este legata de firele
+     * pe care se termina un Mono; functia intoarsa o leaga pe durata construirii modelului.
+     */
+    private static <T, R> Function<T, R> inRequest(Function<T, R> fn) {
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        return value -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return fn.apply(value);
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+
     @Operation(summary = "Valideaza un bilet")
     @ApiResponse(responseCode = "200", description = "Bilet valid.")
     @ApiResponse(responseCode = "201", description = "Validat.")
@@ -55,7 +75,7 @@ public class ClientTicketsController {
     @ApiResponse(responseCode = "415", description = "Unsupported Media Type.")
     @ApiResponse(responseCode = "422", description = "Unprocessable Content.")
     @PostMapping("/{email}/tickets/validate")
-    public ResponseEntity<EntityModel<TicketData>> validateTicket(
+    public Mono<ResponseEntity<EntityModel<TicketData>>> validateTicket(
             @PathVariable String email,
             @RequestParam String cod,
             @RequestParam(defaultValue = "false") boolean save,
@@ -66,28 +86,33 @@ public class ClientTicketsController {
                 UserRole.CLIENT, UserRole.ADMIN
         );
 
-        var client = clientService.findByEmail(email).orElse(null);
+        Mono<Boolean> allowed = current.getRole() != UserRole.CLIENT
+                ? Mono.just(true)
+                : ticketsService.clientExists(email).map(exists -> exists && email.equalsIgnoreCase(current.getEmail()));
 
-        if (current.getRole() == UserRole.CLIENT) {
-            if (client == null || !email.equalsIgnoreCase(current.getEmail())) {
-                return ResponseEntity.status(403).build();
-            }
-        }
+        Function<TicketData, ResponseEntity<EntityModel<TicketData>>> found =
+                inRequest(data -> ResponseEntity.ok(toModel(data, email)));
 
-        return ticketsService.validateTicket(email, cod, save, authorizationHeader)
-                .map(data -> toModel(data, email))
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.badRequest().build());
+        return allowed.flatMap(ok -> {
+            if (!ok) {
+                return Mono.just(ResponseEntity.status(403).<EntityModel<TicketData>>build());
+            }
+            return ticketsService.validateTicket(email, cod, save, authorizationHeader)
+                    .map(found)
+                    .defaultIfEmpty(ResponseEntity.badRequest().build());
+        });
     }
 
-    @Operation(summary = "Lista paginata de bilete")
+    @Operation(summary = "Lista paginata de bilete", description = "Cu parametrul cursor (gol pentru prima pagina) "
+            + "paginarea se face dupa codul biletului, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Lista returnata.")
     @ApiResponse(responseCode = "404", description = "Nu a fost gasit.")
     @GetMapping("/{email}/tickets")
-    public ResponseEntity<PagedModel<EntityModel<TicketData>>> getClientTickets(
+    public Mono<ResponseEntity<PagedModel<EntityModel<TicketData>>>> getClientTickets(
             @PathVariable String email,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             @RequestHeader(name = "Authorization", required = false) String authorizationHeader,
             PagedResourcesAssembler<TicketData> assembler) {
 
@@ -96,56 +121,88 @@ public class ClientTicketsController {
                 UserRole.CLIENT, UserRole.ADMIN
         );
 
-        var clientOpt = clientService.findByEmail(email);
-
-        if (clientOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        if (current.getRole() == UserRole.CLIENT && !email.equalsIgnoreCase(current.getEmail())) {
-            return ResponseEntity.status(403).build();
+        Mono<PagedModel<EntityModel<TicketData>>> pagedModel;
+
+        if (cursor != null) {
+            pagedModel = ticketsService.listDetailedTicketsAfter(email, CursorPages.decode(cursor), size, authorizationHeader)
+                    .map(inRequest((Slice<TicketData> slice) -> CursorPages.toModel(slice, entity -> toModel(entity, email), TicketData::getCod)));
+        } else {
+            pagedModel = ticketsService.listDetailedTickets(email, authorizationHeader)
+                    .map(inRequest((List<TicketData> all) -> {
+                        int start = page * size;
+                        int end = Math.min(start + size, all.size());
+                        List<TicketData> paginated = start >= all.size() ? List.of() : all.subList(start, end);
+
+                        PageImpl<TicketData> pageObj = new PageImpl<>(paginated, PageRequest.of(page, size), all.size());
+                        return assembler.toModel(pageObj, entity -> toModel(entity, email));
+                    }));
         }
 
-        List<TicketData> all = ticketsService.listDetailedTickets(email, authorizationHeader);
-        int start = page * size;
-        int end = Math.min(start + size, all.size());
-        List<TicketData> paginated = start >= all.size() ? List.of() : all.subList(start, end);
-
-        PageImpl<TicketData> pageObj = new PageImpl<>(paginated, PageRequest.of(page, size), all.size());
-        PagedModel<EntityModel<TicketData>> pagedModel = assembler.toModel(pageObj, entity -> toModel(entity, email));
-        pagedModel.add(linkTo(ClientTicketsController.class).slash(email).slash("tickets").withRel("parent"));
-
-        return ResponseEntity.ok(pagedModel);
+        Mono<ResponseEntity<PagedModel<EntityModel<TicketData>>>> response = pagedModel
+                .map(inRequest((PagedModel<EntityModel<TicketData>> model) -> {
+                    model.add(linkTo(ClientTicketsController.class).slash(email).slash("tickets").withRel("parent"));
+                    return ResponseEntity.ok(model);
+                }))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+
+        // ca inainte: 404 pentru un client inexistent, apoi 403 pentru alt client
+        return ticketsService.clientExists(email).flatMap(exists -> {
+            if (!exists) {
+                return Mono.just(ResponseEntity.notFound().<PagedModel<EntityModel<TicketData>>>build());
+            }
+            if (current.getRole() == UserRole.CLIENT && !email.equalsIgnoreCase(current.getEmail())) {
+                return Mono.just(ResponseEntity.status(403).<PagedModel<EntityModel<TicketData>>>build());
+            }
+            return response;
+        });
     }
 
-    @Operation(summary = "Cumpara bilet eveniment")
+    @Operation(summary = "Cumpara bilet eveniment", description = "Pentru evenimentele cu sala de asteptare clientul "
+            + "trimite token-ul primit la admitere in header-ul X-Purchase-Token.")
     @ApiResponse(responseCode = "201", description = "Creat.")
+    @ApiResponse(responseCode = "403", description = "Fara fereastra de cumparare valida.")
     @ApiResponse(responseCode = "409", description = "Conflict.")
     @ApiResponse(responseCode = "415", description = "Unsupported Media Type.")
     @ApiResponse(responseCode = "422", description = "Unprocessable Content.")
     @PostMapping("/{email}/tickets/events/{eventId}")
-    public ResponseEntity<EntityModel<TicketData>> buyEventTicket(
+    public Mono<ResponseEntity<EntityModel<TicketData>>> buyEventTicket(
             @PathVariable String email,
             @PathVariable Integer eventId,
-            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader,
+            @RequestHeader(name = "X-Purchase-Token", required = false) String purchaseToken) {
 
         AuthenticatedUser current = authorizationService.requireUser(
                 authorizationHeader,
                 UserRole.CLIENT, UserRole.ADMIN
         );
 
-        var client = clientService.findByEmail(email).orElse(null);
-        if(current.getRole() == UserRole.CLIENT) {
-            if(client == null || !email.equalsIgnoreCase(client.getEmail())) {
-                return ResponseEntity.status(403).build();
-            }
-        }
+        Mono<Boolean> allowed = current.getRole() != UserRole.CLIENT
+                ? Mono.just(true)
+                : ticketsService.clientExists(email);
 
-        String serviceToken = serviceTokenProvider.getServiceToken();
-        TicketData data = ticketsService.buyTicketForEvent(email, eventId, serviceToken);
-        EntityModel<TicketData> model = toModel(data, email);
+        Function<TicketData, ResponseEntity<EntityModel<TicketData>>> created =
+                inRequest(data -> ResponseEntity.status(HttpStatus.CREATED).body(toModel(data, email)));
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(model);
+        return allowed.flatMap(ok -> {
+            if (!ok) {
+                return Mono.just(ResponseEntity.status(403).<EntityModel<TicketData>>build());
+            }
+            if (current.getRole() != UserRole.CLIENT || !waitingRoomService.isHighDemand(eventId)) {
+                return ticketsService.buyTicketForEvent(email, eventId).map(created);
+            }
+
+            // cererile trec spre event-service doar in ritmul in care sala de asteptare admite clienti;
+            // fereastra e consumata de emiterea biletului si eliberata doar de o eroare de dinainte.
+            // La anulare nu se stie daca biletul a fost emis, deci fereastra ramane consumata.
+            return Mono.defer(() -> {
+                waitingRoomService.claim(eventId, current.getUserId(), purchaseToken);
+                return ticketsService.buyTicketForEvent(email, eventId,
+                                () -> waitingRoomService.finish(eventId, current.getUserId(), true))
+                        .doFinally(signal -> waitingRoomService.finish(eventId, current.getUserId(),
+                                signal != SignalType.ON_ERROR))
+                        .map(created);
+            });
+        });
     }
 
     @Operation(summary = "Cumpara bilet pachet")
@@ -154,7 +211,7 @@ public class ClientTicketsController {
     @ApiResponse(responseCode = "415", description = "Unsupported Media Type.")
     @ApiResponse(responseCode = "422", description = "Unprocessable Content.")
     @PostMapping("/{email}/tickets/packages/{packageId}")
-    public ResponseEntity<EntityModel<TicketData>> buyPackageTicket(
+    public Mono<ResponseEntity<EntityModel<TicketData>>> buyPackageTicket(
             @PathVariable String email,
             @PathVariable Integer packageId,
             @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
@@ -164,18 +221,19 @@ public class ClientTicketsController {
                 UserRole.CLIENT, UserRole.ADMIN
         );
 
-        var client = clientService.findByEmail(email).orElse(null);
-        if(current.getRole() == UserRole.CLIENT) {
-            if(client == null || !email.equalsIgnoreCase(client.getEmail())) {
-                return ResponseEntity.status(403).build();
-            }
-        }
+        Mono<Boolean> allowed = current.getRole() != UserRole.CLIENT
+                ? Mono.just(true)
+                : ticketsService.clientExists(email);
 
-        String serviceToken = serviceTokenProvider.getServiceToken();
-        TicketData data = ticketsService.buyTicketForPackage(email, packageId, serviceToken);
-        EntityModel<TicketData> model = toModel(data, email);
+        Function<TicketData, ResponseEntity<EntityModel<TicketData>>> created =
+                inRequest(data -> ResponseEntity.status(HttpStatus.CREATED).body(toModel(data, email)));
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(model);
+        return allowed.flatMap(ok -> {
+            if (!ok) {
+                return Mono.just(ResponseEntity.status(403).<EntityModel<TicketData>>build());
+            }
+            return ticketsService.buyTicketForPackage(email, packageId).map(created);
+        });
     }
 
     @Operation(summary = "Sterge bilet")
@@ -184,7 +242,7 @@ public class ClientTicketsController {
     @ApiResponse(responseCode = "204", description = "No Content.")
     @ApiResponse(responseCode = "404", description = "Not Found.")
     @DeleteMapping("/tickets/{cod}")
-    public ResponseEntity<Void> deleteTicketEverywhere(
+    public Mono<ResponseEntity<Void>> deleteTicketEverywhere(
             @PathVariable String cod,
             @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
 
@@ -193,11 +251,8 @@ public class ClientTicketsController {
                 UserRole.ADMIN, UserRole.OWNER_EVENT
         );
 
-        try {
-            ticketsService.deleteTicketEverywhere(cod, authorizationHeader);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        return ticketsService.deleteTicketEverywhere(cod, authorizationHeader)
+                .thenReturn(ResponseEntity.noContent().<Void>build())
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().<Void>build()));
     }
 }
\ No newline at end of file
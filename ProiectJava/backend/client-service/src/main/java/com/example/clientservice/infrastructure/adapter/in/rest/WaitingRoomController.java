@@ -0,0 +1,105 @@
+package com.example.clientservice.infrastructure.adapter.in.rest;
+
+import com.example.clientservice.application.auth.AuthenticatedUser;
+import com.example.clientservice.application.auth.AuthorizationService;
+import com.example.clientservice.application.dto.WaitingRoomStatusDTO;
+import com.example.clientservice.application.service.WaitingRoomService;
+import com.example.clientservice.domain.model.UserRole;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+@RestController
+@RequestMapping("/api/client-service/waiting-room")
+@Tag(name = "Waiting Room", description = "Coada de asteptare pentru evenimentele cu cerere mare")
+public class WaitingRoomController {
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    private EntityModel<WaitingRoomStatusDTO> toModel(WaitingRoomStatusDTO dto) {
+        EntityModel<WaitingRoomStatusDTO> model = EntityModel.of(dto);
+        model.add(linkTo(WaitingRoomController.class).slash("events").slash(dto.getEventId()).slash("queue").withSelfRel());
+        return model;
+    }
+
+    @Operation(summary = "Evenimentele cu sala de asteptare")
+    @ApiResponse(responseCode = "200", description = "Lista returnata.")
+    @GetMapping("/events")
+    public ResponseEntity<Set<Integer>> getHighDemandEvents() {
+        return ResponseEntity.ok(waitingRoomService.highDemandEvents());
+    }
+
+    @Operation(summary = "Activeaza sala de asteptare pentru un eveniment")
+    @ApiResponse(responseCode = "204", description = "No Content.")
+    @PutMapping("/events/{eventId}")
+    public ResponseEntity<Void> enable(
+            @PathVariable Integer eventId,
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+
+        authorizationService.requireUser(authorizationHeader, UserRole.ADMIN);
+        waitingRoomService.enable(eventId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Dezactiveaza sala de asteptare pentru un eveniment")
+    @ApiResponse(responseCode = "204", description = "No Content.")
+    @DeleteMapping("/events/{eventId}")
+    public ResponseEntity<Void> disable(
+            @PathVariable Integer eventId,
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+
+        authorizationService.requireUser(authorizationHeader, UserRole.ADMIN);
+        waitingRoomService.disable(eventId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Intra in coada", description = "Repetat, pastreaza locul din coada.")
+    @ApiResponse(responseCode = "200", description = "Pozitia in coada.")
+    @ApiResponse(responseCode = "404", description = "Evenimentul nu are sala de asteptare.")
+    @ApiResponse(responseCode = "503", description = "Sala de asteptare este plina.")
+    @PostMapping("/events/{eventId}/queue")
+    public ResponseEntity<EntityModel<WaitingRoomStatusDTO>> join(
+            @PathVariable Integer eventId,
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+
+        AuthenticatedUser current = authorizationService.requireUser(authorizationHeader, UserRole.CLIENT);
+        return ResponseEntity.ok(toModel(waitingRoomService.join(eventId, current.getUserId())));
+    }
+
+    @Operation(summary = "Pozitia in coada", description = "Cu status ADMITTED raspunsul contine token-ul de cumparare, "
+            + "trimis in header-ul X-Purchase-Token la cumpararea biletului.")
+    @ApiResponse(responseCode = "200", description = "Pozitia in coada.")
+    @ApiResponse(responseCode = "404", description = "Nu a fost gasit.")
+    @GetMapping("/events/{eventId}/queue")
+    public ResponseEntity<EntityModel<WaitingRoomStatusDTO>> status(
+            @PathVariable Integer eventId,
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+
+        AuthenticatedUser current = authorizationService.requireUser(authorizationHeader, UserRole.CLIENT);
+        return ResponseEntity.ok(toModel(waitingRoomService.status(eventId, current.getUserId())));
+    }
+
+    @Operation(summary = "Iese din coada")
+    @ApiResponse(responseCode = "204", description = "No Content.")
+    @DeleteMapping("/events/{eventId}/queue")
+    public ResponseEntity<Void> leave(
+            @PathVariable Integer eventId,
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+
+        AuthenticatedUser current = authorizationService.requireUser(authorizationHeader, UserRole.CLIENT);
+        waitingRoomService.leave(eventId, current.getUserId());
+        return ResponseEntity.noContent().build();
+    }
+}
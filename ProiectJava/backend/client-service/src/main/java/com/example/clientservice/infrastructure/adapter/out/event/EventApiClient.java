@@ -1,64 +1,114 @@
 package com.example.clientservice.infrastructure.adapter.out.event;
 
+import com.example.common.auth.GatewayIdentityVerifier;
+import com.example.common.auth.TokenValidationCache;
 import com.example.clientservice.infrastructure.adapter.out.event.dto.TicketData;
+import com.example.clientservice.infrastructure.adapter.out.event.dto.TicketLookupResult;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 @Component
 public class EventApiClient {
     private final WebClient eventWebClient;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+    private final TokenValidationCache tokenValidationCache;
 
-    public EventApiClient(WebClient eventWebClient) {
+    public EventApiClient(WebClient eventWebClient,
+                          GatewayIdentityVerifier gatewayIdentityVerifier,
+                          TokenValidationCache tokenValidationCache) {
         this.eventWebClient = eventWebClient;
+        this.gatewayIdentityVerifier = gatewayIdentityVerifier;
+        this.tokenValidationCache = tokenValidationCache;
     }
 
-    public TicketData validateAndFetchTicket(String cod, String authorizationHeader) {
+    // gol daca biletul nu exista sau event-service raspunde cu eroare
+    public Mono<TicketData> validateAndFetchTicket(String cod, String authorizationHeader) {
         return eventWebClient.get()
                 .uri(uri -> uri.path("/tickets/{cod}").build(cod))
-                .header("Authorization", authorizationHeader)
+                .headers(userHeaders(authorizationHeader))
                 .retrieve()
                 .onStatus(status -> status.is4xxClientError(),
                         response -> Mono.error(new RuntimeException("Biletul nu a fost gasit: " + cod)))
                 .onStatus(status -> status.is5xxServerError(),
                         response -> Mono.error(new RuntimeException("Server eroare")))
                 .bodyToMono(TicketData.class)
-                .onErrorResume(e -> Mono.empty())
-                .block();
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    // biletele gasite, in ordinea codurilor; codurile inexistente lipsesc din raspuns
+    public Mono<List<TicketData>> lookupTickets(List<String> coduri, String authorizationHeader) {
+        return eventWebClient.post()
+                .uri("/tickets/lookup")
+                .headers(userHeaders(authorizationHeader))
+                .bodyValue(coduri)
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError(),
+                        response -> Mono.error(new ResponseStatusException(
+                                HttpStatus.valueOf(response.statusCode().value()), "Biletele nu au putut fi citite")))
+                .onStatus(status -> status.is5xxServerError(),
+                        response -> Mono.error(new RuntimeException("Server eroare la event-service")))
+                .bodyToMono(TicketLookupResult.class)
+                .map(TicketLookupResult::getTickets);
     }
 
-    public TicketData createTicketForEvent(Integer eventId, String serviceToken) {
+    public Mono<TicketData> createTicketForEvent(Integer eventId, String serviceToken) {
         return eventWebClient.put()
                 .uri(uri -> uri.path("/events/{eventId}/tickets").build(eventId))
                 .header("Authorization", "Bearer " + serviceToken)
                 .retrieve()
+                .onStatus(status -> status.value() == 401,
+                        response -> Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token de serviciu respins")))
                 .onStatus(status -> status.is4xxClientError(),
                         response -> Mono.error(new RuntimeException("Nu pot crea bilet pentru eveniment " + eventId)))
                 .onStatus(status -> status.is5xxServerError(),
                         response -> Mono.error(new RuntimeException("Server eroare la event-service")))
-                .bodyToMono(TicketData.class)
-                .block();
+                .bodyToMono(TicketData.class);
     }
 
-    public TicketData createTicketForPackage(Integer packageId, String serviceToken) {
+    public Mono<TicketData> createTicketForPackage(Integer packageId, String serviceToken) {
         return eventWebClient.put()
                 .uri(uri -> uri.path("/event-packets/{packageId}/tickets").build(packageId))
                 .header("Authorization", "Bearer " + serviceToken)
                 .retrieve()
+                .onStatus(status -> status.value() == 401,
+                        response -> Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token de serviciu respins")))
                 .onStatus(status -> status.is4xxClientError(),
                         response -> Mono.error(new RuntimeException("Nu pot crea bilet pentru pachet " + packageId)))
                 .onStatus(status -> status.is5xxServerError(),
                         response -> Mono.error(new RuntimeException("Server eroare la event-service")))
-                .bodyToMono(TicketData.class)
-                .block();
+                .bodyToMono(TicketData.class);
     }
 
-    public void deleteTicket(String cod, String authorizationHeader) {
-        eventWebClient.delete()
+    public Mono<Void> deleteTicket(String cod, String authorizationHeader) {
+        return eventWebClient.delete()
                 .uri(uri -> uri.path("/tickets/{cod}").build(cod))
-                .header("Authorization", authorizationHeader)
+                .headers(userHeaders(authorizationHeader))
                 .retrieve()
                 .toBodilessEntity()
-                .block();
+                .then();
+    }
+
+    // Authorization-ul utilizatorului plus identitatea deja validata aici, ca event-service sa nu o revalideze
+    private Consumer<HttpHeaders> userHeaders(String authorizationHeader) {
+        String identity = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            String token = authorizationHeader.substring("Bearer ".length());
+            identity = gatewayIdentityVerifier.issue(token, tokenValidationCache.get(token));
+        }
+
+        String header = identity;
+        return headers -> {
+            headers.set(HttpHeaders.AUTHORIZATION, authorizationHeader);
+            if (header != null) {
+                headers.set(GatewayIdentityVerifier.HEADER, header);
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.example.clientservice.infrastructure.adapter.out.event.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+// raspunsul HAL al POST /tickets/lookup: { "_embedded": { "tickets": [ ... ] } }
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TicketLookupResult {
+
+    @JsonProperty("_embedded")
+    private Embedded embedded;
+
+    public TicketLookupResult() {}
+
+    public Embedded getEmbedded() { return embedded; }
+    public void setEmbedded(Embedded embedded) { this.embedded = embedded; }
+
+    @JsonIgnore
+    public List<TicketData> getTickets() {
+        return embedded != null && embedded.getTickets() != null ? embedded.getTickets() : List.of();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Embedded {
+
+        private List<TicketData> tickets;
+
+        public List<TicketData> getTickets() { return tickets; }
+        public void setTickets(List<TicketData> tickets) { this.tickets = tickets; }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.clientservice.infrastructure.config;
+
+import com.example.clientservice.domain.model.ClientDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.stream.Stream;
+
+/**
+ * Indexurile colectiei clients, create la pornire (operatia e idempotenta).
+ * Cautarile inverse dupa bilete folosesc indexuri multikey pe campurile din bilete,
+ * cu isPublic si _id incluse pentru listele publice paginate. Documentele salvate
+ * inainte de campul cautare sunt completate aici o singura data.
+ */
+@Component
+public class ClientIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientIndexInitializer.class);
+
+    private static final int BACKFILL_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ClientIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        backfillSearchTerms();
+        createIndexes();
+    }
+
+    private void createIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(ClientDocument.class);
+
+        ensureUniqueEmail(indexOps);
+        indexOps.ensureIndex(new Index().on("bilete.cod", Sort.Direction.ASC).named("bilete_cod"));
+        indexOps.ensureIndex(new Index()
+                .on("bilete.eventId", Sort.Direction.ASC)
+                .on("isPublic", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("bilete_eventId_public"));
+        indexOps.ensureIndex(new Index()
+                .on("bilete.packageId", Sort.Direction.ASC)
+                .on("isPublic", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("bilete_packageId_public"));
+        indexOps.ensureIndex(new Index()
+                .on("cautare", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("cautare_id"));
+
+        log.info("Indexuri Mongo verificate pentru colectia clients");
+    }
+
+    /**
+     * Un singur document per email: upsert-ul din ClientTicketsService se bazeaza pe el.
+     * Indexul vechi, neunic, este inlocuit; daca exista deja duplicate, indexul unic nu poate fi
+     * creat si se pastreaza cel neunic pana sunt unificate manual.
+     */
+    private void ensureUniqueEmail(IndexOperations indexOps) {
+        boolean nonUnique = indexOps.getIndexInfo().stream()
+                .anyMatch(info -> "email".equals(info.getName()) && !info.isUnique());
+        if (nonUnique) {
+            indexOps.dropIndex("email");
+        }
+
+        try {
+            indexOps.ensureIndex(new Index().on("email", Sort.Direction.ASC).unique().named("email"));
+        } catch (DataIntegrityViolationException | UncategorizedMongoDbException e) {
+            log.error("Indexul unic pe email nu poate fi creat, exista clienti cu acelasi email: {}", e.getMessage());
+            indexOps.ensureIndex(new Index().on("email", Sort.Direction.ASC).named("email"));
+        }
+    }
+
+    private void backfillSearchTerms() {
+        Query missing = Query.query(Criteria.where("cautare").exists(false));
+        missing.fields().include("nume").include("prenume");
+
+        String collection = mongoTemplate.getCollectionName(ClientDocument.class);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        int pending = 0;
+        long total = 0;
+
+        try (Stream<Document> docs = mongoTemplate.stream(missing, Document.class, collection)) {
+            for (Document doc : (Iterable<Document>) docs::iterator) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(doc.get("_id"))),
+                        Update.update("cautare", ClientDocument.searchTerms(doc.getString("nume"), doc.getString("prenume"))));
+                if (++pending == BACKFILL_BATCH) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                    total += pending;
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+            total += pending;
+        }
+
+        if (total > 0) {
+            log.info("Termeni de cautare completati pentru {} clienti", total);
+        }
+    }
+}
@@ -1,10 +1,34 @@
 package com.example.clientservice.infrastructure.config;
 
+import com.example.clientservice.domain.model.ClientDocument;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+import reactor.core.publisher.Mono;
 
 @Configuration
 @EnableMongoRepositories(basePackages = "com.example.clientservice.domain.repository")
+@EnableReactiveMongoRepositories(basePackages = "com.example.clientservice.domain.repository")
 public class MongoConfig {
 
+    // termenii de cautare se recalculeaza la orice salvare, din ambele tipuri de repository
+
+    @Bean
+    public BeforeConvertCallback<ClientDocument> clientSearchTermsCallback() {
+        return (client, collection) -> {
+            client.refreshCautare();
+            return client;
+        };
+    }
+
+    @Bean
+    public ReactiveBeforeConvertCallback<ClientDocument> reactiveClientSearchTermsCallback() {
+        return (client, collection) -> {
+            client.refreshCautare();
+            return Mono.just(client);
+        };
+    }
 }
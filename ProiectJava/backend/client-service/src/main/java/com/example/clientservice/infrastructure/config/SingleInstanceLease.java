@@ -0,0 +1,108 @@
+package com.example.clientservice.infrastructure.config;
+
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Impune rularea client-service intr-o singura instanta: sala de asteptare tine ritmul de
+ * admitere si coada in memorie. La pornire instanta ia un contract de inchiriere in colectia
+ * instance_lease, reinnoit periodic; daca alta instanta il detine, pornirea esueaza dupa cel mult
+ * instance.lease-seconds (timp in care un contract ramas de la o instanta oprita brusc expira).
+ * Expirarea se compara cu ceasul fiecarei instante, deci ceasurile trebuie sincronizate.
+ */
+@Component
+public class SingleInstanceLease {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleInstanceLease.class);
+
+    private static final String COLLECTION = "instance_lease";
+    private static final String LEASE_ID = "client-service";
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration ttl;
+    private final String owner = UUID.randomUUID().toString();
+
+    public SingleInstanceLease(MongoTemplate mongoTemplate,
+                               @Value("${instance.lease-seconds:30}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttl = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @PostConstruct
+    void acquire() {
+        Instant deadline = Instant.now().plus(ttl).plusSeconds(1);
+        while (!tryAcquire()) {
+            if (Instant.now().isAfter(deadline)) {
+                throw new IllegalStateException(
+                        "client-service ruleaza deja in alta instanta; sala de asteptare permite o singura instanta");
+            }
+            log.warn("Contractul de instanta este detinut de alta instanta, se reincearca");
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Pornirea a fost intrerupta", e);
+            }
+        }
+        log.info("Contract de instanta unica obtinut ({})", owner);
+    }
+
+    @Scheduled(fixedDelayString = "${instance.lease-renew-ms:10000}")
+    public void renew() {
+        try {
+            UpdateResult result = mongoTemplate.updateFirst(ownQuery(),
+                    Update.update("expiresAt", Instant.now().plus(ttl)), COLLECTION);
+            if (result.getMatchedCount() == 0 && !tryAcquire()) {
+                log.error("Contractul de instanta a fost preluat de alta instanta: "
+                        + "ritmul salii de asteptare nu mai este garantat");
+            }
+        } catch (RuntimeException e) {
+            // contractul ramane valabil pana la expirare; se reincearca la urmatorul ciclu
+            log.warn("Reinnoirea contractului de instanta a esuat: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void release() {
+        // instanta urmatoare poate porni imediat, fara sa astepte expirarea
+        mongoTemplate.remove(ownQuery(), COLLECTION);
+    }
+
+    /**
+     * Upsert conditionat: reuseste daca nu exista contract, daca este al acestei instante sau daca
+     * a expirat. Cand alta instanta il detine, filtrul nu gaseste documentul si insertul se ciocneste
+     * pe _id.
+     */
+    private boolean tryAcquire() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        try {
+            mongoTemplate.upsert(query, new Update()
+                    .set("owner", owner)
+                    .set("expiresAt", now.plus(ttl)), COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private Query ownQuery() {
+        return Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(owner));
+    }
+}
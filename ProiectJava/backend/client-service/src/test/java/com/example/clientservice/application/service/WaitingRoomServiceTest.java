@@ -0,0 +1,169 @@
+package com.example.clientservice.application.service;
+
+import com.example.clientservice.application.dto.WaitingRoomStatusDTO;
+import com.example.clientservice.domain.model.WaitingRoomDocument;
+import com.example.clientservice.domain.repository.WaitingRoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ritmul de admitere si estimarile din sala de asteptare, cu un ceas controlat de test.
+ */
+class WaitingRoomServiceTest {
+
+    private static final int EVENT = 7;
+
+    // 10 admiteri pe secunda: un client la 100 ms
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final WaitingRoomRepository repository = mock(WaitingRoomRepository.class);
+
+    private WaitingRoomService room(long maxEntries) {
+        return room(String.valueOf(EVENT), maxEntries);
+    }
+
+    private WaitingRoomService room(String events, long maxEntries) {
+        return new WaitingRoomService(events, 10, 120, maxEntries, 10, repository,
+                new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void adminMarkedEventsSurviveARestart() {
+        when(repository.findAll()).thenReturn(List.of(new WaitingRoomDocument(EVENT, Instant.now())));
+
+        WaitingRoomService restarted = room("", 100);
+
+        assertThat(restarted.isHighDemand(EVENT)).isTrue();
+        assertThat(restarted.join(EVENT, 1).getStatus()).isEqualTo(WaitingRoomService.ADMITTED);
+    }
+
+    @Test
+    void enableAndDisableArePersisted() {
+        WaitingRoomService service = room("", 100);
+
+        service.enable(EVENT);
+        assertThat(service.isHighDemand(EVENT)).isTrue();
+        verify(repository).save(argThat(doc -> doc.getEventId() == EVENT));
+
+        service.disable(EVENT);
+        assertThat(service.isHighDemand(EVENT)).isFalse();
+        verify(repository).deleteById(EVENT);
+    }
+
+    @Test
+    void admitsClientsAtTheConfiguredPace() {
+        WaitingRoomService service = room(100);
+
+        WaitingRoomStatusDTO first = service.join(EVENT, 1);
+        WaitingRoomStatusDTO second = service.join(EVENT, 2);
+        WaitingRoomStatusDTO third = service.join(EVENT, 3);
+
+        assertThat(first.getStatus()).isEqualTo(WaitingRoomService.ADMITTED);
+        assertThat(first.getPurchaseToken()).isNotBlank();
+
+        assertThat(second.getStatus()).isEqualTo(WaitingRoomService.WAITING);
+        assertThat(second.getPosition()).isEqualTo(2);
+        assertThat(second.getAhead()).isEqualTo(1);
+        assertThat(second.getEtaSeconds()).isEqualTo(1);
+
+        assertThat(third.getPosition()).isEqualTo(3);
+        assertThat(third.getAhead()).isEqualTo(2);
+
+        advance(150);
+
+        assertThat(service.status(EVENT, 2).getStatus()).isEqualTo(WaitingRoomService.ADMITTED);
+        WaitingRoomStatusDTO stillWaiting = service.status(EVENT, 3);
+        assertThat(stillWaiting.getStatus()).isEqualTo(WaitingRoomService.WAITING);
+        assertThat(stillWaiting.getAhead()).isEqualTo(1);
+    }
+
+    @Test
+    void etaCoversTheWholeQueueAhead() {
+        WaitingRoomService service = room(100);
+
+        for (int user = 1; user <= 25; user++) {
+            service.join(EVENT, user);
+        }
+
+        // al 25-lea client intra la 2,4 s dupa primul
+        WaitingRoomStatusDTO last = service.status(EVENT, 25);
+        assertThat(last.getAhead()).isEqualTo(24);
+        assertThat(last.getEtaSeconds()).isEqualTo(3);
+    }
+
+    @Test
+    void idleQueueDoesNotBankAdmissions() {
+        WaitingRoomService service = room(100);
+        service.join(EVENT, 1);
+
+        advance(10_000);
+
+        assertThat(service.join(EVENT, 2).getStatus()).isEqualTo(WaitingRoomService.ADMITTED);
+        assertThat(service.join(EVENT, 3).getStatus()).isEqualTo(WaitingRoomService.WAITING);
+    }
+
+    @Test
+    void rejoiningKeepsThePlace() {
+        WaitingRoomService service = room(100);
+        service.join(EVENT, 1);
+        service.join(EVENT, 2);
+
+        assertThat(service.join(EVENT, 2).getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void fullRoomRejectsNewClientsWithoutDroppingQueuedOnes() {
+        WaitingRoomService service = room(2);
+        service.join(EVENT, 1);
+        service.join(EVENT, 2);
+
+        assertThatThrownBy(() -> service.join(EVENT, 3))
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(service.status(EVENT, 1).getStatus()).isEqualTo(WaitingRoomService.ADMITTED);
+        assertThat(service.status(EVENT, 2).getStatus()).isEqualTo(WaitingRoomService.WAITING);
+
+        service.leave(EVENT, 1);
+        assertThat(service.join(EVENT, 3).getPosition()).isEqualTo(3);
+    }
+
+    @Test
+    void usedWindowRequeuesWithoutTakingAnotherSlot() {
+        WaitingRoomService service = room(1);
+        String token = service.join(EVENT, 1).getPurchaseToken();
+
+        service.claim(EVENT, 1, token);
+        service.finish(EVENT, 1, true);
+        assertThat(service.status(EVENT, 1).getStatus()).isEqualTo(WaitingRoomService.USED);
+
+        assertThat(service.join(EVENT, 1).getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void failedPurchaseGivesTheWindowBack() {
+        WaitingRoomService service = room(100);
+        String token = service.join(EVENT, 1).getPurchaseToken();
+
+        service.claim(EVENT, 1, token);
+        service.finish(EVENT, 1, false);
+
+        assertThat(service.status(EVENT, 1).getStatus()).isEqualTo(WaitingRoomService.ADMITTED);
+        service.claim(EVENT, 1, token);
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
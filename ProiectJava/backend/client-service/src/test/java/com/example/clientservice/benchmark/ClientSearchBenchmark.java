@@ -0,0 +1,169 @@
+package com.example.clientservice.benchmark;
+
+import com.example.clientservice.domain.model.ClientDocument;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cautarea clientilor dupa nume pe 1.000.000 de documente sintetice (Mongo din Testcontainers):
+ * - legacy: cele doua regex-uri neancorate, fara majuscule, pe nume si prenume, reunite in memorie;
+ * - cautareSort: prefixul pe campul cautare prin indexul cautare_id, urmat de sortarea dupa _id a
+ *   potrivirilor (planul din ClientRepository);
+ * - cautareNextPage: acelasi plan pentru o pagina urmatoare (_id > cursor), cu cursorul in limitele indexului;
+ * - idWalk: acelasi filtru, parcurgand indexul _id pana se umple pagina; termenul inexistent citeste
+ *   astfel toata colectia, de aceea planul nu mai este fortat.
+ * Termenii: unul frecvent, un nume complet rar si unul care nu exista.
+ *
+ * Rulare: mvn -pl client-service -am test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.example.clientservice.benchmark.ClientSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ClientSearchBenchmark {
+
+    private static final int CLIENTS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String[] NUME = {"Popescu", "Ionescu", "Popa", "Pop", "Radu", "Dumitru", "Stan", "Stoica",
+            "Gheorghe", "Matei", "Ciobanu", "Rusu", "Munteanu", "Moldovan", "Florea", "Constantin", "Ilie", "Oprea",
+            "Tudor", "Dinu", "Lungu", "Mihai", "Marin", "Barbu", "Nistor", "Cristea", "Toma", "Vasile", "Sandu", "Zamfir"};
+    private static final String[] PRENUME = {"Andrei", "Ana", "Maria", "Ioana", "Elena", "Alexandru", "Mihai", "Ștefan",
+            "Cristina", "Gabriel", "Ionuț", "Daniela", "Răzvan", "Bogdan", "Alina", "Florin", "Adriana", "Vlad",
+            "Irina", "Sorin", "Oana", "Cătălin", "Raluca", "George", "Diana", "Tudor", "Simona", "Marius", "Laura", "Dan"};
+
+    @Param({"pop", "zamfir raluca", "xyz"})
+    public String term;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private MongoCollection<Document> clients;
+    private Bson prefixFilter;
+    private ObjectId middle;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ClientSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:7");
+        mongo.start();
+
+        client = MongoClients.create(mongo.getConnectionString());
+        clients = client.getDatabase("clientdb").getCollection("clients");
+        seed();
+
+        // ca in ClientIndexInitializer
+        clients.createIndex(Indexes.ascending("cautare", "_id"), new IndexOptions().name("cautare_id"));
+
+        prefixFilter = Filters.regex("cautare", "^" + ClientDocument.normalizeName(term));
+
+        // cursorul unei pagini din mijlocul colectiei
+        middle = clients.find().sort(Sorts.ascending("_id")).skip(CLIENTS / 2).first().getObjectId("_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        Pattern like = Pattern.compile(".*" + term + ".*", Pattern.CASE_INSENSITIVE);
+        Set<ObjectId> merged = new LinkedHashSet<>();
+        for (Document doc : clients.find(Filters.regex("nume", like))) {
+            merged.add(doc.getObjectId("_id"));
+        }
+        for (Document doc : clients.find(Filters.regex("prenume", like))) {
+            merged.add(doc.getObjectId("_id"));
+        }
+        bh.consume(merged.size());
+    }
+
+    @Benchmark
+    public void cautareSort(Blackhole bh) {
+        page(bh, "cautare_id");
+    }
+
+    @Benchmark
+    public void cautareNextPage(Blackhole bh) {
+        page(bh, "cautare_id", Filters.and(Filters.gt("_id", middle), prefixFilter));
+    }
+
+    @Benchmark
+    public void idWalk(Blackhole bh) {
+        page(bh, "_id_");
+    }
+
+    private void page(Blackhole bh, String index) {
+        page(bh, index, prefixFilter);
+    }
+
+    private void page(Blackhole bh, String index, Bson filter) {
+        for (Document doc : clients.find(filter)
+                .sort(Sorts.ascending("_id"))
+                .hintString(index)
+                .limit(PAGE_SIZE + 1)) {
+            bh.consume(doc.getObjectId("_id"));
+        }
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        List<Document> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < CLIENTS; i++) {
+            String nume = NUME[random.nextInt(NUME.length)];
+            String prenume = PRENUME[random.nextInt(PRENUME.length)];
+            batch.add(new Document("email", "client" + i + "@bench")
+                    .append("nume", nume)
+                    .append("prenume", prenume)
+                    .append("isPublic", random.nextBoolean())
+                    .append("cautare", ClientDocument.searchTerms(nume, prenume)));
+            if (batch.size() == 10_000) {
+                clients.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            clients.insertMany(batch);
+        }
+    }
+}
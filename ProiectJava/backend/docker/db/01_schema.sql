@@ -18,6 +18,7 @@ CREATE TABLE evenimente (
     locatie VARCHAR(255),
     descriere VARCHAR(255),
     numarLocuri INT,
+    versiune INT NOT NULL DEFAULT 0,
     FOREIGN KEY (id_owner) REFERENCES utilizatori(id)
 );
 
@@ -29,6 +30,7 @@ CREATE TABLE pachete (
     locatie VARCHAR(255),
     descriere VARCHAR(255),
     numarLocuri INT,
+    versiune INT NOT NULL DEFAULT 0,
     FOREIGN KEY (id_owner) REFERENCES utilizatori(id)
 );
 
@@ -51,6 +53,35 @@ CREATE TABLE bilete (
     FOREIGN KEY (eveniment_id) REFERENCES evenimente(id)
 );
 
+-- INVENTAR (contoare materializate, reconstruite din bilete)
+CREATE TABLE inventar_evenimente (
+    eveniment_id INT PRIMARY KEY,
+    locuri_vandute INT NOT NULL DEFAULT 0,
+    locuri_pachete INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (eveniment_id) REFERENCES evenimente(id) ON DELETE CASCADE
+);
+
+CREATE TABLE inventar_pachete (
+    pachet_id INT PRIMARY KEY,
+    bilete_vandute INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (pachet_id) REFERENCES pachete(id) ON DELETE CASCADE
+);
+
+-- VERSIUNI CATALOG (ETag-uri si Last-Modified; actualizate la commit de tranzactiile care modifica tabela)
+CREATE TABLE versiuni_catalog (
+    tabela VARCHAR(32) NOT NULL,
+    slot TINYINT NOT NULL,
+    versiune BIGINT NOT NULL DEFAULT 0,
+    modificat_la TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (tabela, slot)
+);
+
+INSERT INTO versiuni_catalog (tabela, slot)
+SELECT t.tabela, s.seq
+FROM (SELECT 'evenimente' AS tabela UNION ALL SELECT 'pachete' UNION ALL SELECT 'pachete_evenimente'
+      UNION ALL SELECT 'bilete' UNION ALL SELECT 'inventar_evenimente' UNION ALL SELECT 'inventar_pachete') t
+CROSS JOIN seq_0_to_15 s;
+
 -- TOKEN BLACKLIST
 CREATE TABLE token_blacklist (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -5,7 +5,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling
-@SpringBootApplication
+// componentele de autentificare comune serviciilor sunt in service-common
+@SpringBootApplication(scanBasePackages = {"com.example.eventservice", "com.example.common.auth"})
 public class EventServiceApplication {
 
 	public static void main(String[] args) {
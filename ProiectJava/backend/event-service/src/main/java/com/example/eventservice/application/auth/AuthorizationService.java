@@ -1,10 +1,18 @@
 package com.example.eventservice.application.auth;
 
+import com.example.common.auth.GatewayIdentityVerifier;
+import com.example.common.auth.LocalTokenVerifier;
+import com.example.common.auth.RevocationSet;
+import com.example.common.auth.TokenValidationCache;
 import com.example.eventservice.application.service.TokenBlacklistService;
 import com.example.eventservice.domain.model.UserEntity;
 import com.example.eventservice.infrastructure.adapter.out.idm.IdmAuthClient;
 import com.example.idm.grpc.ValidateTokenResponse;
 import com.google.api.Http;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -14,12 +22,33 @@ import java.util.Arrays;
 @Service
 public class AuthorizationService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthorizationService.class);
+
     private final IdmAuthClient idmAuthClient;
     private final TokenBlacklistService tokenBlacklistService;
-
-    public AuthorizationService(IdmAuthClient idmAuthClient, TokenBlacklistService tokenBlacklistService) {
+    private final TokenValidationCache tokenValidationCache;
+    private final LocalTokenVerifier localTokenVerifier;
+    private final RevocationSet revocationSet;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+    private final boolean localMode;
+    private final boolean revocationFailOpen;
+
+    public AuthorizationService(IdmAuthClient idmAuthClient,
+                                TokenBlacklistService tokenBlacklistService,
+                                TokenValidationCache tokenValidationCache,
+                                LocalTokenVerifier localTokenVerifier,
+                                RevocationSet revocationSet,
+                                GatewayIdentityVerifier gatewayIdentityVerifier,
+                                @Value("${idm.auth.mode:remote}") String authMode,
+                                @Value("${idm.auth.revocation-fail-open:true}") boolean revocationFailOpen) {
         this.idmAuthClient = idmAuthClient;
         this.tokenBlacklistService = tokenBlacklistService;
+        this.tokenValidationCache = tokenValidationCache;
+        this.localTokenVerifier = localTokenVerifier;
+        this.revocationSet = revocationSet;
+        this.gatewayIdentityVerifier = gatewayIdentityVerifier;
+        this.localMode = isLocalMode(authMode, localTokenVerifier);
+        this.revocationFailOpen = revocationFailOpen;
     }
 
     public AuthenticatedUser requireUser(String authorizationHeader, UserEntity.Role... allowedRoles) {
@@ -37,19 +66,36 @@ public class AuthorizationService {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Empty token");
         }
 
-        if (tokenBlacklistService.isBlacklisted(token)) {
+        // token-urile deja validate nu mai trec prin blacklist si IDM; logout-ul le scoate din cache
+        ValidateTokenResponse resp = tokenValidationCache.get(token);
+
+        if (resp == null) {
+            // tabela token_blacklist se verifica mereu: IDM tine revocarile doar in memorie,
+            // deci dupa o repornire a lui fluxul sincronizat nu le mai contine
+            if (tokenBlacklistService.isBlacklisted(token)) {
+                throw new ResponseStatusException(
+                        HttpStatus.UNAUTHORIZED,
+                        "Sesiune expirata sau revocata. Va rugam sa va logati din nou"
+                );
+            }
+
+            resp = validateOrTrustGateway(token);
+
+            if (!resp.getValid()) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, resp.getMessage());
+            }
+
+            tokenValidationCache.put(token, resp);
+        }
+
+        if (revocationSet.isRevoked(resp.getJti(), resp.getSub(), resp.getExp())) {
+            tokenValidationCache.invalidate(token);
             throw new ResponseStatusException(
                     HttpStatus.UNAUTHORIZED,
                     "Sesiune expirata sau revocata. Va rugam sa va logati din nou"
             );
         }
 
-        ValidateTokenResponse resp = idmAuthClient.validate(token);
-
-        if (!resp.getValid()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, resp.getMessage());
-        }
-
         UserEntity.Role role = UserEntity.Role.fromString(resp.getRole());
 
         if (allowedRoles != null && allowedRoles.length > 0) {
@@ -74,4 +120,63 @@ public class AuthorizationService {
 
         return new AuthenticatedUser(userId, role, token);
     }
+
+    private ValidateTokenResponse validateOrTrustGateway(String token) {
+        // identitatea semnata de gateway inlocuieste validarea doar cat timp revocarile sunt la zi
+        if (revocationSet.isSynced()) {
+            ValidateTokenResponse fromGateway = gatewayIdentityVerifier.verify(token);
+            if (fromGateway != null) {
+                return fromGateway;
+            }
+        }
+        return validate(token);
+    }
+
+    private ValidateTokenResponse validate(String token) {
+        if (!localMode) {
+            return idmAuthClient.validate(token);
+        }
+
+        // semnatura si expirarea se verifica local; revocarea vine din fluxul IDM sau, la nevoie, prin CheckRevoked
+        ValidateTokenResponse resp = localTokenVerifier.verify(token);
+
+        if (resp.getValid() && isRevoked(token, resp)) {
+            return ValidateTokenResponse.newBuilder()
+                    .setValid(false)
+                    .setMessage("Token is blacklisted")
+                    .build();
+        }
+
+        return resp;
+    }
+
+    private boolean isRevoked(String token, ValidateTokenResponse resp) {
+        if (revocationSet.isSynced()) {
+            return revocationSet.isRevoked(resp.getJti(), resp.getSub(), resp.getExp());
+        }
+
+        try {
+            return idmAuthClient.checkRevoked(token).getRevoked();
+        } catch (StatusRuntimeException ex) {
+            if (revocationFailOpen) {
+                log.warn("Verificarea revocarii la IDM a esuat ({}), token-ul verificat local este acceptat",
+                        ex.getStatus().getCode());
+                return false;
+            }
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Serviciul de autentificare nu este disponibil"
+            );
+        }
+    }
+
+    private static boolean isLocalMode(String authMode, LocalTokenVerifier verifier) {
+        if (!"local".equalsIgnoreCase(authMode)) {
+            return false;
+        }
+        if (!verifier.isConfigured()) {
+            throw new IllegalStateException("idm.auth.mode=local necesita idm.jwt.secret sau idm.jwt.keys");
+        }
+        return true;
+    }
 }
@@ -0,0 +1,123 @@
+package com.example.eventservice.application.service;
+
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.EventInventoryEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.PackageInventoryEntity;
+import com.example.eventservice.domain.repository.EventInventoryRepository;
+import com.example.eventservice.domain.repository.PackageEventRepository;
+import com.example.eventservice.domain.repository.PackageInventoryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Locurile vandute / disponibile pentru o pagina intreaga de evenimente sau pachete,
+ * calculate cu un numar constant de interogari, indiferent de dimensiunea paginii.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AvailabilitySnapshotService {
+
+    private final EventInventoryRepository eventInventoryRepository;
+    private final PackageInventoryRepository packageInventoryRepository;
+    private final PackageEventRepository packageEventRepository;
+
+    public AvailabilitySnapshotService(EventInventoryRepository eventInventoryRepository,
+                                       PackageInventoryRepository packageInventoryRepository,
+                                       PackageEventRepository packageEventRepository) {
+        this.eventInventoryRepository = eventInventoryRepository;
+        this.packageInventoryRepository = packageInventoryRepository;
+        this.packageEventRepository = packageEventRepository;
+    }
+
+    public Map<Integer, EventAvailability> forEvents(Collection<EventEntity> events) {
+        Map<Integer, EventAvailability> result = new HashMap<>();
+        if (events.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, EventInventoryEntity> inventar = eventInventoryRepository
+                .findAllById(events.stream().map(EventEntity::getId).toList()).stream()
+                .collect(Collectors.toMap(EventInventoryEntity::getEvenimentId, Function.identity()));
+
+        for (EventEntity event : events) {
+            EventInventoryEntity inv = inventar.get(event.getId());
+            int vandute = inv != null ? inv.getLocuriVandute() : 0;
+            int pachete = inv != null ? inv.getLocuriPachete() : 0;
+            int capacity = event.getNumarLocuri() != null ? event.getNumarLocuri() : 0;
+
+            result.put(event.getId(), new EventAvailability(vandute, pachete, Math.max(capacity - vandute - pachete, 0)));
+        }
+        return result;
+    }
+
+    public Map<Integer, PackageAvailability> forPackages(Collection<PackageEntity> packages) {
+        Map<Integer, PackageAvailability> result = new HashMap<>();
+        if (packages.isEmpty()) {
+            return result;
+        }
+
+        List<Integer> ids = packages.stream().map(PackageEntity::getId).toList();
+
+        Map<Integer, Integer> vandute = packageInventoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(PackageInventoryEntity::getPachetId, PackageInventoryEntity::getBileteVandute));
+
+        Map<Integer, Object[]> rezumat = packageEventRepository.summarizeByPachetIds(ids).stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], Function.identity()));
+
+        for (PackageEntity pachet : packages) {
+            int sold = vandute.getOrDefault(pachet.getId(), 0);
+            Object[] row = rezumat.get(pachet.getId());
+            int eventCount = row != null ? ((Number) row[1]).intValue() : 0;
+
+            int available = 0;
+            Integer capacity = pachet.getNumarLocuri();
+            if (capacity != null && capacity > 0 && eventCount > 0) {
+                int remainingByEvents = ((Number) row[2]).intValue();
+                available = Math.max(Math.min(capacity - sold, remainingByEvents), 0);
+            }
+
+            result.put(pachet.getId(), new PackageAvailability(sold, available, eventCount));
+        }
+        return result;
+    }
+
+    public static class EventAvailability {
+        private final int ticketsSold;
+        private final int packageSeats;
+        private final int available;
+
+        public EventAvailability(int ticketsSold, int packageSeats, int available) {
+            this.ticketsSold = ticketsSold;
+            this.packageSeats = packageSeats;
+            this.available = available;
+        }
+
+        public int getTicketsSold() { return ticketsSold; }
+        public int getPackageSeats() { return packageSeats; }
+        public int getAvailable() { return available; }
+    }
+
+    public static class PackageAvailability {
+        private final int ticketsSold;
+        private final int available;
+        private final int eventCount;
+
+        public PackageAvailability(int ticketsSold, int available, int eventCount) {
+            this.ticketsSold = ticketsSold;
+            this.available = available;
+            this.eventCount = eventCount;
+        }
+
+        public int getTicketsSold() { return ticketsSold; }
+        public int getAvailable() { return available; }
+        public int getEventCount() { return eventCount; }
+    }
+}
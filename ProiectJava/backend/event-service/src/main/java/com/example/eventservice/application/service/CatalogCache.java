@@ -0,0 +1,218 @@
+package com.example.eventservice.application.service;
+
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.PackageEventEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache local pentru datele de catalog (evenimente, pachete si legaturile dintre ele),
+ * care se schimba rar fata de cat de des sunt citite. Intrarile expira dupa TTL si
+ * sunt invalidate de operatiile de scriere, o data imediat si inca o data la finalul
+ * tranzactiei. Fiecare invalidare creste generatia cheii; o valoare incarcata inainte
+ * de invalidare si pusa in cache dupa ea este scoasa de cititorul care a pus-o.
+ * Contoarele de locuri nu sunt pastrate aici; disponibilitatea se calculeaza in continuare
+ * din inventar.
+ */
+@Component
+public class CatalogCache {
+
+    private final boolean enabled;
+
+    private final Region<Optional<EventEntity>> events;
+    private final Region<Optional<PackageEntity>> packages;
+    private final Region<List<PackageEventEntity>> eventsByPackage;
+    private final Region<List<PackageEventEntity>> packagesByEvent;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CatalogCache(@Value("${catalog.cache.enabled:true}") boolean enabled,
+                        @Value("${catalog.cache.max-size:10000}") long maxSize,
+                        @Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.events = new Region<>(maxSize, ttl);
+        this.packages = new Region<>(maxSize, ttl);
+        this.eventsByPackage = new Region<>(maxSize, ttl);
+        this.packagesByEvent = new Region<>(maxSize, ttl);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, events.cache, "catalog.events");
+        CaffeineCacheMetrics.monitor(meterRegistry, packages.cache, "catalog.packages");
+        CaffeineCacheMetrics.monitor(meterRegistry, eventsByPackage.cache, "catalog.package-events");
+        CaffeineCacheMetrics.monitor(meterRegistry, packagesByEvent.cache, "catalog.event-packages");
+    }
+
+    // ---- citire ----
+
+    public Optional<EventEntity> event(Integer id, Function<Integer, Optional<EventEntity>> loader) {
+        return get(events, id, key -> {
+            Optional<EventEntity> event = loader.apply(key);
+            event.ifPresent(this::detach);
+            return event;
+        });
+    }
+
+    public Optional<PackageEntity> pachet(Integer id, Function<Integer, Optional<PackageEntity>> loader) {
+        return get(packages, id, key -> {
+            Optional<PackageEntity> pachet = loader.apply(key);
+            pachet.ifPresent(this::detach);
+            return pachet;
+        });
+    }
+
+    public List<PackageEventEntity> eventsForPackage(Integer packageId, Function<Integer, List<PackageEventEntity>> loader) {
+        return get(eventsByPackage, packageId, key -> detachRelations(loader.apply(key)));
+    }
+
+    public List<PackageEventEntity> packagesForEvent(Integer eventId, Function<Integer, List<PackageEventEntity>> loader) {
+        return get(packagesByEvent, eventId, key -> detachRelations(loader.apply(key)));
+    }
+
+    // ---- invalidare ----
+
+    public void invalidateEvent(Integer eventId) {
+        afterCompletionToo(() -> {
+            events.invalidate(eventId);
+            packagesByEvent.invalidate(eventId);
+            // listele de evenimente ale pachetelor contin evenimentul insusi
+            eventsByPackage.invalidateAll();
+        });
+    }
+
+    public void invalidatePackage(Integer packageId) {
+        afterCompletionToo(() -> {
+            packages.invalidate(packageId);
+            eventsByPackage.invalidate(packageId);
+            packagesByEvent.invalidateAll();
+        });
+    }
+
+    public void invalidateRelation(Integer packageId, Integer eventId) {
+        afterCompletionToo(() -> {
+            eventsByPackage.invalidate(packageId);
+            packagesByEvent.invalidate(eventId);
+        });
+    }
+
+    // valoarea se incarca in afara cache-ului: o incarcare din baza de date tinuta in
+    // Cache.get(key, fn) ar bloca firul purtator sub firele virtuale
+    private <V> V get(Region<V> region, Integer key, Function<Integer, V> loader) {
+        if (!enabled || key == null) {
+            return loader.apply(key);
+        }
+
+        V cached = region.cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = region.generation(key);
+        V loaded = loader.apply(key);
+        region.putIfCurrent(key, loaded, generation);
+        return loaded;
+    }
+
+    private void afterCompletionToo(Runnable invalidation) {
+        if (!enabled) {
+            return;
+        }
+
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    // instantele din cache sunt impartite intre cereri, deci nu trebuie sa ramana
+    // atasate contextului de persistenta al cererii care le-a incarcat
+    private List<PackageEventEntity> detachRelations(List<PackageEventEntity> relations) {
+        for (PackageEventEntity relation : relations) {
+            detach(relation);
+            detach(relation.getPachet());
+            detach(relation.getEveniment());
+        }
+        return List.copyOf(relations);
+    }
+
+    private void detach(Object entity) {
+        if (enabled && entity != null && entityManager.contains(entity)) {
+            entityManager.detach(entity);
+        }
+    }
+
+    /**
+     * Un cache cu generatiile cheilor sale, pe segmente dupa hash (o generatie poate acoperi
+     * mai multe chei, ceea ce doar sare peste cateva puneri in cache).
+     */
+    private static final class Region<V> {
+
+        private static final int STRIPES = 1024;
+
+        final Cache<Integer, V> cache;
+        private final AtomicLongArray keyGenerations = new AtomicLongArray(STRIPES);
+        private final AtomicLong allGeneration = new AtomicLong();
+
+        Region(long maxSize, Duration ttl) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+        }
+
+        long generation(Integer key) {
+            return keyGenerations.get(stripe(key)) + allGeneration.get();
+        }
+
+        // generatia creste inainte de stergere: o punere verificata dupa ea fie vede generatia
+        // noua, fie este stearsa de invalidare
+        void invalidate(Integer key) {
+            keyGenerations.incrementAndGet(stripe(key));
+            cache.invalidate(key);
+        }
+
+        void invalidateAll() {
+            allGeneration.incrementAndGet();
+            cache.invalidateAll();
+        }
+
+        void putIfCurrent(Integer key, V value, long generation) {
+            if (generation(key) != generation) {
+                return;
+            }
+            cache.put(key, value);
+            if (generation(key) != generation) {
+                cache.asMap().remove(key, value);
+            }
+        }
+
+        private static int stripe(Integer key) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) & (STRIPES - 1);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.eventservice.application.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Versiunea agregata a datelor din care se construiesc raspunsurile GET. Fiecare tabela are
+ * un contor in versiuni_catalog, crescut de tranzactiile care o modifica chiar inainte de
+ * commit ({@link #touch(Tabela...)}), deci versiunea se schimba exact cand modificarea devine
+ * vizibila. Tot atunci se noteaza momentul modificarii, folosit pentru Last-Modified. Contorul unei tabele este impartit pe SLOTS randuri, ca vanzarile simultane sa nu
+ * astepte toate dupa acelasi rand; versiunea este suma lor.
+ * Stergerile in cascada (inventar, relatii) sunt acoperite de tabela parinte, prezenta in
+ * fiecare Scope care le contine.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CatalogVersionService {
+
+    private static final int SLOTS = 16;
+
+    public enum Tabela {
+        EVENIMENTE("evenimente"),
+        PACHETE("pachete"),
+        PACHETE_EVENIMENTE("pachete_evenimente"),
+        INVENTAR_EVENIMENTE("inventar_evenimente"),
+        INVENTAR_PACHETE("inventar_pachete"),
+        BILETE("bilete");
+
+        private final String nume;
+
+        Tabela(String nume) {
+            this.nume = nume;
+        }
+    }
+
+    public enum Scope {
+        EVENTS(Tabela.EVENIMENTE, Tabela.INVENTAR_EVENIMENTE),
+        PACKAGES(Tabela.PACHETE, Tabela.INVENTAR_PACHETE, Tabela.PACHETE_EVENIMENTE,
+                Tabela.EVENIMENTE, Tabela.INVENTAR_EVENIMENTE),
+        TICKETS(Tabela.BILETE, Tabela.INVENTAR_EVENIMENTE, Tabela.INVENTAR_PACHETE,
+                Tabela.EVENIMENTE, Tabela.PACHETE);
+
+        private final List<Tabela> tabele;
+        private final String lastModifiedSql;
+        private final String sql;
+
+        Scope(Tabela... tabele) {
+            this.tabele = List.of(tabele);
+            this.lastModifiedSql = this.tabele.stream()
+                    .map(t -> "'" + t.nume + "'")
+                    .collect(Collectors.joining(", ", "SELECT MAX(modificat_la) FROM versiuni_catalog WHERE tabela IN (", ")"));
+            this.sql = this.tabele.stream()
+                    .map(t -> "(SELECT COALESCE(SUM(versiune), 0) FROM versiuni_catalog WHERE tabela = '" + t.nume + "')")
+                    .collect(Collectors.joining(", ", "SELECT ", ", (" + lastModifiedSql + ")"));
+        }
+    }
+
+    /** Tag-ul din contoare si ultima modificare a tabelelor (null daca nu se cunoaste). */
+    public record Version(String tag, Instant lastModified) {}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Version current(Scope scope) {
+        Object[] row = (Object[]) entityManager.createNativeQuery(scope.sql).getSingleResult();
+
+        StringJoiner tag = new StringJoiner(":", scope.name() + ":", "");
+        for (int i = 0; i < row.length - 1; i++) {
+            tag.add(String.valueOf(((Number) row[i]).longValue()));
+        }
+        return new Version(tag.toString(), toInstant(row[row.length - 1]));
+    }
+
+    /** Doar momentul ultimei modificari, pentru raspunsurile cu ETag propriu (o resursa). */
+    public Instant lastModified(Scope scope) {
+        return toInstant(entityManager.createNativeQuery(scope.lastModifiedSql).getSingleResult());
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        }
+        return null;
+    }
+
+    /**
+     * Marcheaza tabelele modificate de tranzactia curenta; contoarele lor cresc o singura data,
+     * la commit, dupa ce modificarile au fost trimise bazei de date. Randurile de versiune sunt
+     * blocate ultimele si in aceeasi ordine, deci nu pot produce blocaje reciproce.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void touch(Tabela... tabele) {
+        @SuppressWarnings("unchecked")
+        Set<Tabela> modificate = (Set<Tabela>) TransactionSynchronizationManager.getResource(this);
+
+        if (modificate == null) {
+            Set<Tabela> nou = EnumSet.noneOf(Tabela.class);
+            TransactionSynchronizationManager.bindResource(this, nou);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    bump(nou);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersionService.this);
+                }
+            });
+            modificate = nou;
+        }
+
+        modificate.addAll(List.of(tabele));
+    }
+
+    private void bump(Set<Tabela> tabele) {
+        if (tabele.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+
+        // randul lipsa (baza de date existenta) este creat la prima modificare
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+        String values = tabele.stream()
+                .map(t -> t.nume)
+                .sorted()
+                .map(nume -> "('" + nume + "', " + slot + ", 1)")
+                .collect(Collectors.joining(", "));
+
+        entityManager.createNativeQuery("INSERT INTO versiuni_catalog (tabela, slot, versiune) VALUES " + values
+                        + " ON DUPLICATE KEY UPDATE versiune = versiune + 1, modificat_la = CURRENT_TIMESTAMP(3)")
+                .executeUpdate();
+    }
+}
@@ -1,17 +1,22 @@
 package com.example.eventservice.application.service;
 
+import com.example.eventservice.application.service.CatalogVersionService.Tabela;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.PackageEventEntity;
 import com.example.eventservice.domain.repository.EventRepository;
+import com.example.eventservice.domain.repository.EventSpecifications;
 import com.example.eventservice.domain.repository.PackageEventRepository;
-import com.example.eventservice.domain.repository.TicketRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,7 +32,13 @@ public class EventService {
     private PackageEventRepository packageEventRepository;
 
     @Autowired
-    private TicketRepository ticketRepository;
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
 
 
     public List<EventEntity> getAllEvents() {
@@ -35,23 +46,30 @@ public class EventService {
     }
 
     public Optional<EventEntity> getEventById(Integer id) {
-        return eventRepository.findById(id);
+        return catalogCache.event(id, eventRepository::findById);
     }
 
+    @Transactional
     public EventEntity createEvent(EventEntity event) {
         if(event.getNumarLocuri() == null || event.getNumarLocuri() <= 0) {
             throw new IllegalArgumentException("Numarul de locuri trebuie sa fie mai mare decat 0.");
         }
-        return eventRepository.save(event);
+        // id-ul il genereaza baza de date; un id venit din cerere ar face din save() un merge
+        event.setId(null);
+        EventEntity saved = eventRepository.save(event);
+        inventoryService.initEvent(saved.getId());
+        catalogVersionService.touch(Tabela.EVENIMENTE);
+        catalogCache.invalidateEvent(saved.getId());
+        return saved;
     }
 
+    @Transactional
     public EventEntity updateEvent(Integer id, EventEntity updatedEvent) {
+        catalogCache.invalidateEvent(id);
         return eventRepository.findById(id)
                 .map(event -> {
 
-                    int bileteEveniment = ticketRepository.findByEveniment(event).size();
-                    int biletePachete = countPackageTicketsImpactForEvent(event);
-                    int totalVandute = bileteEveniment + biletePachete;
+                    int totalVandute = inventoryService.getEventInventory(event.getId()).getLocuriOcupate();
 
                     if(totalVandute > 0) {
                         if(!event.getNume().equals(updatedEvent.getNume()) ||
@@ -68,61 +86,49 @@ public class EventService {
                     event.setLocatie(updatedEvent.getLocatie());
                     event.setDescriere(updatedEvent.getDescriere());
                     event.setNumarLocuri((updatedEvent.getNumarLocuri()));
+                    catalogVersionService.touch(Tabela.EVENIMENTE);
                     return eventRepository.save(event);
                 }).orElseThrow(() -> new IllegalArgumentException("Evenimentul nu exista."));
     }
 
+    @Transactional
     public void deleteEvent(Integer id) {
         EventEntity event = eventRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Evenimentul nu exista."));
 
+        inventoryService.removeEvent(event.getId());
         packageEventRepository.deleteByEveniment(event);
         eventRepository.delete(event);
+        catalogVersionService.touch(Tabela.EVENIMENTE, Tabela.PACHETE_EVENIMENTE);
+        catalogCache.invalidateEvent(id);
     }
 
     public List<PackageEventEntity> getPackagesForEvent(EventEntity event) {
-        return packageEventRepository.findByEveniment(event);
+        return catalogCache.packagesForEvent(event.getId(), id -> packageEventRepository.findByEveniment(event));
     }
 
     public Page<EventEntity> searchEvents(String name, String location, Integer availableTickets, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        List<EventEntity> allEvents = eventRepository.findAll(); //
-
-        List<EventEntity> filtered = allEvents.stream()
-                .filter(e -> name == null || e.getNume().toLowerCase().contains(name.toLowerCase()))
-                .filter(e -> location == null || (e.getLocatie() != null && e.getLocatie().toLowerCase().contains(location.toLowerCase())))
-                .filter(e -> {
-                    if (availableTickets == null) return true;
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
 
-                    int totalCapacity = e.getNumarLocuri() != null ? e.getNumarLocuri() : 0;
-                    int soldDirect = countTicketsSold(e);
-                    int soldViaPackage = countPackageTicketsImpactForEvent(e);
-
-                    int realAvailable = totalCapacity - soldDirect - soldViaPackage;
+        return eventRepository.findAll(searchSpec(name, location, availableTickets), pageable);
+    }
 
-                    return realAvailable >= availableTickets;
-                })
-                .toList();
+    public Slice<EventEntity> searchEventsAfter(String name, String location, Integer availableTickets, Integer afterId, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), filtered.size());
-        List<EventEntity> paginated = start >= filtered.size() ?
-                List.of() : filtered.subList(start, end);
+        Specification<EventEntity> spec = searchSpec(name, location, availableTickets)
+                .and(EventSpecifications.idDupa(afterId));
 
-        return new PageImpl<>(paginated, pageable, filtered.size());
-    }
+        List<EventEntity> rows = eventRepository.findBy(spec, q -> q.sortBy(pageable.getSort()).limit(size + 1).all());
 
-    public int countTicketsSold(EventEntity event) {
-        return ticketRepository.findByEveniment(event).size();
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
     }
 
-    public int countPackageTicketsImpactForEvent(EventEntity event) {
-        var rels = packageEventRepository.findByEveniment(event);
-
-        return rels.stream()
-                .map(pe -> pe.getPachet())
-                .distinct()
-                .mapToInt(p -> ticketRepository.findByPachet(p).size())
-                .sum();
+    private Specification<EventEntity> searchSpec(String name, String location, Integer availableTickets) {
+        return Specification.where(EventSpecifications.numeContine(name))
+                .and(EventSpecifications.locatieContine(location))
+                .and(EventSpecifications.locuriDisponibileMinim(availableTickets))
+                .and(EventSpecifications.cuOwner());
     }
 }
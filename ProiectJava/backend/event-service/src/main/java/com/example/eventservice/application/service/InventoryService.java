@@ -0,0 +1,240 @@
+package com.example.eventservice.application.service;
+
+import com.example.eventservice.application.service.CatalogVersionService.Tabela;
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.EventInventoryEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.PackageEventEntity;
+import com.example.eventservice.domain.model.PackageInventoryEntity;
+import com.example.eventservice.domain.model.TicketEntity;
+import com.example.eventservice.domain.repository.EventInventoryRepository;
+import com.example.eventservice.domain.repository.EventRepository;
+import com.example.eventservice.domain.repository.PackageEventRepository;
+import com.example.eventservice.domain.repository.PackageInventoryRepository;
+import com.example.eventservice.domain.repository.PackageRepository;
+import com.example.eventservice.domain.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Contoarele materializate de locuri ocupate pentru evenimente si pachete.
+ * Se actualizeaza in aceeasi tranzactie cu inserarea/stergerea biletelor;
+ * {@link #rebuild()} le reface din tabela bilete.
+ */
+@Service
+@Transactional
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private final EventInventoryRepository eventInventoryRepository;
+    private final PackageInventoryRepository packageInventoryRepository;
+    private final EventRepository eventRepository;
+    private final PackageRepository packageRepository;
+    private final PackageEventRepository packageEventRepository;
+    private final TicketRepository ticketRepository;
+    private final CatalogVersionService catalogVersionService;
+
+    public InventoryService(EventInventoryRepository eventInventoryRepository,
+                            PackageInventoryRepository packageInventoryRepository,
+                            EventRepository eventRepository,
+                            PackageRepository packageRepository,
+                            PackageEventRepository packageEventRepository,
+                            TicketRepository ticketRepository,
+                            CatalogVersionService catalogVersionService) {
+        this.eventInventoryRepository = eventInventoryRepository;
+        this.packageInventoryRepository = packageInventoryRepository;
+        this.eventRepository = eventRepository;
+        this.packageRepository = packageRepository;
+        this.packageEventRepository = packageEventRepository;
+        this.ticketRepository = ticketRepository;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    // ---- citire ----
+
+    @Transactional(readOnly = true)
+    public EventInventoryEntity getEventInventory(Integer eventId) {
+        return eventInventoryRepository.findById(eventId)
+                .orElseGet(() -> new EventInventoryEntity(eventId, 0, 0));
+    }
+
+    @Transactional(readOnly = true)
+    public PackageInventoryEntity getPackageInventory(Integer packageId) {
+        return packageInventoryRepository.findById(packageId)
+                .orElseGet(() -> new PackageInventoryEntity(packageId, 0));
+    }
+
+    // ---- ciclul de viata al evenimentelor / pachetelor ----
+
+    public void initEvent(Integer eventId) {
+        if (!eventInventoryRepository.existsById(eventId)) {
+            eventInventoryRepository.save(new EventInventoryEntity(eventId, 0, 0));
+            catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE);
+        }
+    }
+
+    public void initPackage(Integer packageId) {
+        if (!packageInventoryRepository.existsById(packageId)) {
+            packageInventoryRepository.save(new PackageInventoryEntity(packageId, 0));
+            catalogVersionService.touch(Tabela.INVENTAR_PACHETE);
+        }
+    }
+
+    public void removeEvent(Integer eventId) {
+        eventInventoryRepository.deleteById(eventId);
+        catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE);
+    }
+
+    public void removePackage(Integer packageId) {
+        int sold = getPackageInventory(packageId).getBileteVandute();
+        if (sold > 0) {
+            eventInventoryRepository.addLocuriPacheteForPackage(packageId, -sold);
+        }
+        packageInventoryRepository.deleteById(packageId);
+        catalogVersionService.touch(Tabela.INVENTAR_PACHETE, Tabela.INVENTAR_EVENIMENTE);
+    }
+
+    public void onEventLinked(PackageEntity pachet, EventEntity eveniment) {
+        int sold = getPackageInventory(pachet.getId()).getBileteVandute();
+        if (sold > 0 && eventInventoryRepository.addLocuriPachete(eveniment.getId(), sold) == 0) {
+            rebuildEvent(eveniment);
+        }
+        catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE);
+    }
+
+    public void onEventUnlinked(PackageEntity pachet, EventEntity eveniment) {
+        int sold = getPackageInventory(pachet.getId()).getBileteVandute();
+        if (sold > 0 && eventInventoryRepository.addLocuriPachete(eveniment.getId(), -sold) == 0) {
+            rebuildEvent(eveniment);
+        }
+        catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE);
+    }
+
+    // ---- bilete ----
+
+    public void onTicketDeleted(TicketEntity ticket) {
+        if (ticket.getEveniment() != null) {
+            if (eventInventoryRepository.addLocuriVandute(ticket.getEveniment().getId(), -1) == 0) {
+                rebuildEvent(ticket.getEveniment());
+            }
+        }
+
+        if (ticket.getPachet() != null) {
+            Integer packageId = ticket.getPachet().getId();
+            if (packageInventoryRepository.addBileteVandute(packageId, -1) == 0) {
+                rebuildPackage(ticket.getPachet());
+            }
+            eventInventoryRepository.addLocuriPacheteForPackage(packageId, -1);
+        }
+        catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE, Tabela.INVENTAR_PACHETE);
+    }
+
+    public void rebuildPackage(PackageEntity pachet) {
+        packageInventoryRepository.save(new PackageInventoryEntity(pachet.getId(),
+                (int) ticketRepository.countByPachet(pachet)));
+        catalogVersionService.touch(Tabela.INVENTAR_PACHETE);
+    }
+
+    public void rebuildEvent(EventEntity event) {
+        int direct = (int) ticketRepository.countByEveniment(event);
+        int viaPachete = packageEventRepository.findByEveniment(event).stream()
+                .mapToInt(pe -> (int) ticketRepository.countByPachet(pe.getPachet()))
+                .sum();
+
+        eventInventoryRepository.save(new EventInventoryEntity(event.getId(), direct, viaPachete));
+        catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE);
+    }
+
+    // ---- reconciliere ----
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reface toate contoarele din tabela bilete. Randurile de inventar sunt blocate
+     * pe durata recalcularii, astfel incat vanzarile concurente asteapta si se aplica
+     * peste valorile reconstruite.
+     */
+    @Scheduled(cron = "${inventory.reconcile.cron:0 30 3 * * *}")
+    public void rebuild() {
+        Map<Integer, EventInventoryEntity> eventRows = eventInventoryRepository.findAllForUpdate().stream()
+                .collect(Collectors.toMap(EventInventoryEntity::getEvenimentId, Function.identity()));
+        Map<Integer, PackageInventoryEntity> packageRows = packageInventoryRepository.findAllForUpdate().stream()
+                .collect(Collectors.toMap(PackageInventoryEntity::getPachetId, Function.identity()));
+
+        Map<Integer, Integer> directByEvent = toCountMap(ticketRepository.countGroupedByEveniment());
+        Map<Integer, Integer> soldByPackage = toCountMap(ticketRepository.countGroupedByPachet());
+
+        Map<Integer, Integer> packageSeatsByEvent = new HashMap<>();
+        for (PackageEventEntity pe : packageEventRepository.findAll()) {
+            int sold = soldByPackage.getOrDefault(pe.getPachet().getId(), 0);
+            packageSeatsByEvent.merge(pe.getEveniment().getId(), sold, Integer::sum);
+        }
+
+        int corrected = 0;
+
+        for (EventEntity event : eventRepository.findAll()) {
+            int direct = directByEvent.getOrDefault(event.getId(), 0);
+            int viaPachete = packageSeatsByEvent.getOrDefault(event.getId(), 0);
+
+            EventInventoryEntity row = eventRows.remove(event.getId());
+            if (row == null) {
+                row = new EventInventoryEntity(event.getId(), 0, 0);
+            }
+            if (row.getLocuriVandute() != direct || row.getLocuriPachete() != viaPachete) {
+                row.setLocuriVandute(direct);
+                row.setLocuriPachete(viaPachete);
+                eventInventoryRepository.save(row);
+                corrected++;
+            }
+        }
+
+        for (PackageEntity pachet : packageRepository.findAll()) {
+            int sold = soldByPackage.getOrDefault(pachet.getId(), 0);
+
+            PackageInventoryEntity row = packageRows.remove(pachet.getId());
+            if (row == null) {
+                row = new PackageInventoryEntity(pachet.getId(), 0);
+            }
+            if (row.getBileteVandute() != sold) {
+                row.setBileteVandute(sold);
+                packageInventoryRepository.save(row);
+                corrected++;
+            }
+        }
+
+        // randuri ramase fara eveniment/pachet
+        eventInventoryRepository.deleteAll(eventRows.values());
+        packageInventoryRepository.deleteAll(packageRows.values());
+
+        if (corrected > 0 || !eventRows.isEmpty() || !packageRows.isEmpty()) {
+            catalogVersionService.touch(Tabela.INVENTAR_EVENIMENTE, Tabela.INVENTAR_PACHETE);
+        }
+
+        if (corrected > 0) {
+            log.info("Inventar reconciliat: {} contoare corectate", corrected);
+        }
+    }
+
+    private static Map<Integer, Integer> toCountMap(List<Object[]> rows) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        return counts;
+    }
+}
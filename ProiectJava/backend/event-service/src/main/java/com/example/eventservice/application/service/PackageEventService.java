@@ -1,25 +1,34 @@
 package com.example.eventservice.application.service;
 
+import com.example.eventservice.application.service.CatalogVersionService.Tabela;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.PackageEventEntity;
 import com.example.eventservice.domain.model.PackageEventIdEntity;
 import com.example.eventservice.domain.repository.PackageEventRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 
 @Service
-@Transactional
 public class PackageEventService {
 
     @Autowired
     private PackageEventRepository packageEventRepository;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     public List<PackageEventEntity> getAllRelations() {
         return packageEventRepository.findAll();
     }
@@ -29,20 +38,29 @@ public class PackageEventService {
     }
 
     public List<PackageEventEntity> getPackagesForEvent(EventEntity eveniment) {
-        return packageEventRepository.findByEveniment(eveniment);
+        return catalogCache.packagesForEvent(eveniment.getId(), id -> packageEventRepository.findByEveniment(eveniment));
     }
 
     public List<PackageEventEntity> getEventsForPackage(PackageEntity pachet) {
-        return packageEventRepository.findByPachet(pachet);
+        return catalogCache.eventsForPackage(pachet.getId(), id -> packageEventRepository.findByPachet(pachet));
     }
 
+    // relatia si contoarele de inventar se modifica impreuna sau deloc
+    @Transactional
     public PackageEventEntity addEventToPackage(PackageEntity pachet, EventEntity eveniment) {
         PackageEventEntity relation = new PackageEventEntity(pachet, eveniment);
-        return packageEventRepository.save(relation);
+        PackageEventEntity saved = packageEventRepository.save(relation);
+        inventoryService.onEventLinked(pachet, eveniment);
+        catalogVersionService.touch(Tabela.PACHETE_EVENIMENTE);
+        catalogCache.invalidateRelation(pachet.getId(), eveniment.getId());
+        return saved;
     }
 
-
+    @Transactional
     public void removeEventFromPackage(PackageEntity pachet, EventEntity eveniment) {
         packageEventRepository.deleteByPachetAndEveniment(pachet, eveniment);
+        inventoryService.onEventUnlinked(pachet, eveniment);
+        catalogVersionService.touch(Tabela.PACHETE_EVENIMENTE);
+        catalogCache.invalidateRelation(pachet.getId(), eveniment.getId());
     }
 }
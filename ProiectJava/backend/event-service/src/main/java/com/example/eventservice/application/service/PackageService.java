@@ -1,20 +1,25 @@
 package com.example.eventservice.application.service;
 
+import com.example.eventservice.application.service.CatalogVersionService.Tabela;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.PackageEventEntity;
 import com.example.eventservice.domain.repository.PackageEventRepository;
 import com.example.eventservice.domain.repository.PackageRepository;
+import com.example.eventservice.domain.repository.PackageSpecifications;
 
-import com.example.eventservice.domain.repository.TicketRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 @Service
 public class PackageService {
@@ -26,7 +31,13 @@ public class PackageService {
     private PackageEventRepository packageEventRepository;
 
     @Autowired
-    private TicketRepository ticketRepository;
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
 
 
     public List<PackageEntity> getAllPackages() {
@@ -34,18 +45,27 @@ public class PackageService {
     }
 
     public Optional<PackageEntity> getPackageById(Integer id) {
-        return packageRepository.findById(id);
+        return catalogCache.pachet(id, packageRepository::findById);
     }
 
+    @Transactional
     public PackageEntity createPackages(PackageEntity p) {
-        return packageRepository.save(p);
+        // id-ul il genereaza baza de date; un id venit din cerere ar face din save() un merge
+        p.setId(null);
+        PackageEntity saved = packageRepository.save(p);
+        inventoryService.initPackage(saved.getId());
+        catalogVersionService.touch(Tabela.PACHETE);
+        catalogCache.invalidatePackage(saved.getId());
+        return saved;
     }
 
+    @Transactional
     public PackageEntity updatePackage(Integer id, PackageEntity updated) {
+        catalogCache.invalidatePackage(id);
         return packageRepository.findById(id)
                 .map(p -> {
 
-                    int ticketsSold = ticketRepository.findByPachet(p).size();
+                    int ticketsSold = countTicketsSold(p);
 
                     if (ticketsSold > 0 && p.getNumarLocuri() != null && !p.getNumarLocuri().equals(updated.getNumarLocuri())) {
                         throw new IllegalStateException("Nu se poate modifica numarul de locuri pentru pachet dupa ce s-au vandut bilete.");
@@ -55,78 +75,54 @@ public class PackageService {
                     p.setLocatie(updated.getLocatie());
                     p.setDescriere(updated.getDescriere());
                     p.setNumarLocuri(updated.getNumarLocuri());
+                    catalogVersionService.touch(Tabela.PACHETE);
                     return packageRepository.save(p);
         }).orElseThrow(() -> new IllegalArgumentException("Pachetul nu exista."));
     }
 
+    @Transactional
     public void deletePackage(Integer id) {
         PackageEntity pachet = packageRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Pachetul nu exista."));
 
+        inventoryService.removePackage(pachet.getId());
         packageEventRepository.deleteByPachet(pachet);
         packageRepository.delete(pachet);
+        catalogVersionService.touch(Tabela.PACHETE, Tabela.PACHETE_EVENIMENTE);
+        catalogCache.invalidatePackage(id);
     }
 
     public List<PackageEventEntity> getEventsForPackage(PackageEntity pachet) {
-        return packageEventRepository.findByPachet(pachet);
+        return catalogCache.eventsForPackage(pachet.getId(), id -> packageEventRepository.findByPachet(pachet));
     }
 
-    public Integer calculeazaLocuriDisponibile(PackageEntity pachet) {
-        Integer capacityPerPackage = pachet.getNumarLocuri();
-        if (capacityPerPackage == null || capacityPerPackage <= 0) {
-            return 0;
-        }
-
-        int packageTicketsSold = ticketRepository.findByPachet(pachet).size();
-        int remainingByPackageCapacity = capacityPerPackage - packageTicketsSold;
-        if (remainingByPackageCapacity <= 0) return 0;
-
-        var legaturi = packageEventRepository.findByPachet(pachet);
-        if (legaturi.isEmpty()) {
-            return 0;
-        }
-
-        int remainingByEvents = legaturi.stream()
-                .mapToInt(pe -> {
-                    var ev = pe.getEveniment();
-                    int eventCapacity = ev.getNumarLocuri() != null ? ev.getNumarLocuri() : 0;
-                    int eventTicketsSold = ticketRepository.findByEveniment(ev).size();
-
-                    int remainingForEvent = eventCapacity - eventTicketsSold - packageTicketsSold;
-                    return Math.max(remainingForEvent, 0);
-                })
-                .min()
-                .orElse(0);
-
-        return Math.max(Math.min(remainingByPackageCapacity, remainingByEvents), 0);
+    public int countTicketsSold(PackageEntity pachet) {
+        return inventoryService.getPackageInventory(pachet.getId()).getBileteVandute();
     }
 
     public Page<PackageEntity> searchPackages(String name, String type, String eventName, Integer availableTickets, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
 
-        List<PackageEntity> allPackages = packageRepository.findAll();
+        return packageRepository.findAll(searchSpec(name, type, eventName, availableTickets), pageable);
+    }
 
-        List<PackageEntity> filtered = allPackages.stream()
-                .filter(p -> name == null || p.getNume().toLowerCase().contains(name.toLowerCase()))
-                .filter(p -> type == null || (p.getDescriere() != null && p.getDescriere().toLowerCase().contains(type.toLowerCase())))
-                .filter(p -> {
-                    if(availableTickets == null) return true;
-                    Integer locuriDisponibile = calculeazaLocuriDisponibile(p);
-                    return locuriDisponibile >= availableTickets;
-                })
-                .filter(p -> eventName == null || packageEventRepository.findByPachet(p).stream()
-                        .anyMatch(pe -> pe.getEveniment().getNume().toLowerCase().contains(eventName.toLowerCase())))
-                .toList();
+    public Slice<PackageEntity> searchPackagesAfter(String name, String type, String eventName, Integer availableTickets, Integer afterId, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), filtered.size());
+        Specification<PackageEntity> spec = searchSpec(name, type, eventName, availableTickets)
+                .and(PackageSpecifications.idDupa(afterId));
 
-        List<PackageEntity> paginated = start >= filtered.size() ? List.of() : filtered.subList(start, end);
+        List<PackageEntity> rows = packageRepository.findBy(spec, q -> q.sortBy(pageable.getSort()).limit(size + 1).all());
 
-        return new PageImpl<>(paginated, pageable, filtered.size());
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
     }
 
-    public int countEventsInPackage(PackageEntity entity) {
-        return packageEventRepository.findByPachet(entity).size();
+    private Specification<PackageEntity> searchSpec(String name, String type, String eventName, Integer availableTickets) {
+        return Specification.where(PackageSpecifications.numeContine(name))
+                .and(PackageSpecifications.descriereContine(type))
+                .and(PackageSpecifications.contineEveniment(eventName))
+                .and(PackageSpecifications.locuriDisponibileMinim(availableTickets))
+                .and(PackageSpecifications.cuOwner());
     }
 }
@@ -0,0 +1,166 @@
+package com.example.eventservice.application.service;
+
+import com.example.eventservice.application.service.CatalogVersionService.Tabela;
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.PackageEventEntity;
+import com.example.eventservice.domain.model.TicketEntity;
+import com.example.eventservice.domain.repository.EventInventoryRepository;
+import com.example.eventservice.domain.repository.EventRepository;
+import com.example.eventservice.domain.repository.PackageEventRepository;
+import com.example.eventservice.domain.repository.PackageInventoryRepository;
+import com.example.eventservice.domain.repository.PackageRepository;
+import com.example.eventservice.domain.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emiterea biletelor fara supra-vanzare: fiecare vanzare ocupa locul printr-un
+ * UPDATE conditionat pe contoarele de inventar (WHERE ocupate &lt; capacitate),
+ * deci verificarea si rezervarea sunt o singura operatie atomica in baza de date.
+ * Pentru pachete, locul se ocupa pe pachet si pe toate evenimentele legate in
+ * aceeasi tranzactie; daca un singur eveniment e plin, totul se anuleaza.
+ */
+@Service
+public class TicketIssuanceService {
+
+    private final EventRepository eventRepository;
+    private final PackageRepository packageRepository;
+    private final PackageEventRepository packageEventRepository;
+    private final TicketRepository ticketRepository;
+    private final EventInventoryRepository eventInventoryRepository;
+    private final PackageInventoryRepository packageInventoryRepository;
+    private final InventoryService inventoryService;
+    private final CatalogVersionService catalogVersionService;
+
+    // evenimente/pachete vazute recent fara locuri, respinse fara a mai atinge baza de date
+    private final Map<Integer, Long> eventsSoldOutUntil = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> packagesSoldOutUntil = new ConcurrentHashMap<>();
+    private final long soldOutHintMillis;
+
+    public TicketIssuanceService(EventRepository eventRepository,
+                                 PackageRepository packageRepository,
+                                 PackageEventRepository packageEventRepository,
+                                 TicketRepository ticketRepository,
+                                 EventInventoryRepository eventInventoryRepository,
+                                 PackageInventoryRepository packageInventoryRepository,
+                                 InventoryService inventoryService,
+                                 CatalogVersionService catalogVersionService,
+                                 @Value("${tickets.issuance.sold-out-hint-ms:1000}") long soldOutHintMillis) {
+        this.eventRepository = eventRepository;
+        this.packageRepository = packageRepository;
+        this.packageEventRepository = packageEventRepository;
+        this.ticketRepository = ticketRepository;
+        this.eventInventoryRepository = eventInventoryRepository;
+        this.packageInventoryRepository = packageInventoryRepository;
+        this.inventoryService = inventoryService;
+        this.catalogVersionService = catalogVersionService;
+        this.soldOutHintMillis = soldOutHintMillis;
+    }
+
+    @Transactional
+    public TicketEntity issueForEvent(Integer eventId) {
+        if (isHinted(eventsSoldOutUntil, eventId)) {
+            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest eveniment.");
+        }
+
+        EventEntity event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new IllegalArgumentException("Evenimentul nu exista."));
+
+        int reserved = eventInventoryRepository.reserveLoc(eventId);
+        if (reserved == 0 && !eventInventoryRepository.existsById(eventId)) {
+            inventoryService.rebuildEvent(event);
+            reserved = eventInventoryRepository.reserveLoc(eventId);
+        }
+
+        if (reserved == 0) {
+            hint(eventsSoldOutUntil, eventId);
+            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest eveniment.");
+        }
+
+        TicketEntity ticket = new TicketEntity();
+        ticket.setCod(UUID.randomUUID().toString());
+        ticket.setEveniment(event);
+        ticket.setPachet(null);
+
+        catalogVersionService.touch(Tabela.BILETE, Tabela.INVENTAR_EVENIMENTE);
+        return ticketRepository.save(ticket);
+    }
+
+    @Transactional
+    public TicketEntity issueForPackage(Integer packageId) {
+        if (isHinted(packagesSoldOutUntil, packageId)) {
+            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest pachet.");
+        }
+
+        PackageEntity pachet = packageRepository.findById(packageId)
+                .orElseThrow(() -> new IllegalArgumentException("Pachetul nu exista."));
+
+        long linkedEvents = packageEventRepository.countByPachet(pachet);
+        if (linkedEvents == 0) {
+            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest pachet.");
+        }
+
+        int reserved = packageInventoryRepository.reserveBilet(packageId);
+        if (reserved == 0 && !packageInventoryRepository.existsById(packageId)) {
+            inventoryService.rebuildPackage(pachet);
+            reserved = packageInventoryRepository.reserveBilet(packageId);
+        }
+
+        if (reserved == 0) {
+            hint(packagesSoldOutUntil, packageId);
+            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest pachet.");
+        }
+
+        // un eveniment fara rand de inventar ar lipsi din UPDATE-ul de mai jos ca si cum ar fi plin
+        if (eventInventoryRepository.countForPackage(packageId) < linkedEvents) {
+            packageEventRepository.findByPachet(pachet).stream()
+                    .map(PackageEventEntity::getEveniment)
+                    .filter(ev -> !eventInventoryRepository.existsById(ev.getId()))
+                    .forEach(inventoryService::rebuildEvent);
+        }
+
+        // un singur UPDATE pentru toate evenimentele pachetului; randurile sunt blocate
+        // in ordinea indexului, deci vanzarile concurente nu se pot bloca reciproc
+        if (eventInventoryRepository.reserveLocForPackage(packageId) != linkedEvents) {
+            hint(packagesSoldOutUntil, packageId);
+            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest pachet.");
+        }
+
+        TicketEntity ticket = new TicketEntity();
+        ticket.setCod(UUID.randomUUID().toString());
+        ticket.setPachet(pachet);
+        ticket.setEveniment(null);
+
+        catalogVersionService.touch(Tabela.BILETE, Tabela.INVENTAR_PACHETE, Tabela.INVENTAR_EVENIMENTE);
+        return ticketRepository.save(ticket);
+    }
+
+    public void onSeatsReleased() {
+        eventsSoldOutUntil.clear();
+        packagesSoldOutUntil.clear();
+    }
+
+    private boolean isHinted(Map<Integer, Long> hints, Integer id) {
+        Long until = hints.get(id);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            hints.remove(id, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void hint(Map<Integer, Long> hints, Integer id) {
+        if (soldOutHintMillis > 0) {
+            hints.put(id, System.currentTimeMillis() + soldOutHintMillis);
+        }
+    }
+}
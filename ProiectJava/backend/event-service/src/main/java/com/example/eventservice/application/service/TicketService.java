@@ -1,25 +1,31 @@
 package com.example.eventservice.application.service;
 
+import com.example.eventservice.application.service.CatalogVersionService.Tabela;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.PackageEntity;
-import com.example.eventservice.domain.model.PackageEventEntity;
 import com.example.eventservice.domain.model.TicketEntity;
-import com.example.eventservice.domain.repository.EventRepository;
-import com.example.eventservice.domain.repository.PackageEventRepository;
-import com.example.eventservice.domain.repository.PackageRepository;
 import com.example.eventservice.domain.repository.TicketRepository;
+import com.example.eventservice.domain.repository.TicketSpecifications;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 
 @Service
@@ -29,16 +35,13 @@ public class TicketService {
     private TicketRepository ticketRepository;
 
     @Autowired
-    private EventRepository eventRepository;
+    private InventoryService inventoryService;
 
     @Autowired
-    private PackageRepository packageRepository;
+    private TicketIssuanceService ticketIssuanceService;
 
     @Autowired
-    private PackageService packageService;
-
-    @Autowired
-    private PackageEventRepository packageEventRepository;
+    private CatalogVersionService catalogVersionService;
 
 
     public List<TicketEntity> getAllTickets() {
@@ -49,50 +52,31 @@ public class TicketService {
         return ticketRepository.findById(code);
     }
 
-    public TicketEntity createTicketForEvent(Integer eventId) {
-        EventEntity event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new IllegalArgumentException("Evenimentul nu exista."));
-
-        long bileteVandute = ticketRepository.findByEveniment(event).size();
-
-        if (event.getNumarLocuri() == null || bileteVandute >= event.getNumarLocuri()) {
-            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest eveniment.");
-        }
-
-        String cod = UUID.randomUUID().toString();
-        TicketEntity ticket = new TicketEntity();
-        ticket.setCod(cod);
-        ticket.setEveniment(event);
-        ticket.setPachet(null);
+    @Transactional
+    public void deleteTicket(String cod) {
+        TicketEntity ticket = ticketRepository.findById(cod)
+                .orElseThrow(() -> new IllegalArgumentException("Biletul nu exista."));
 
-        return ticketRepository.save(ticket);
+        ticketRepository.delete(ticket);
+        inventoryService.onTicketDeleted(ticket);
+        catalogVersionService.touch(Tabela.BILETE);
+        ticketIssuanceService.onSeatsReleased();
     }
 
-    @Transactional
-    public TicketEntity createTicketForPackage(Integer packageId) {
-        PackageEntity pachet = packageRepository.findById(packageId)
-                .orElseThrow(() -> new IllegalArgumentException("Pachetul nu exista."));
-
-        int available = packageService.calculeazaLocuriDisponibile(pachet);
-        if (available <= 0) {
-            throw new IllegalStateException("Nu mai sunt locuri disponibile pentru acest pachet.");
-        }
-
-        String cod = UUID.randomUUID().toString();
-        TicketEntity ticket = new TicketEntity();
-        ticket.setCod(cod);
-        ticket.setPachet(pachet);
-        ticket.setEveniment(null);
-
-        return ticketRepository.save(ticket);
-    }
+    /**
+     * Biletele cu codurile date, in ordinea codurilor; codurile inexistente sunt ignorate.
+     * Evenimentul si pachetul sunt incarcate in aceeasi interogare.
+     */
+    public List<TicketEntity> getTicketsByCodes(List<String> coduri) {
+        Set<String> distincte = new LinkedHashSet<>(coduri);
 
+        Map<String, TicketEntity> byCod = ticketRepository.findAllWithDetailsByCodIn(distincte).stream()
+                .collect(Collectors.toMap(TicketEntity::getCod, Function.identity()));
 
-    public void deleteTicket(String cod) {
-        if (!ticketRepository.existsById(cod)) {
-            throw new IllegalArgumentException("Biletul nu exista.");
-        }
-        ticketRepository.deleteById(cod);
+        return distincte.stream()
+                .map(byCod::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     public List<TicketEntity> getTicketsByEvent(EventEntity event) {
@@ -104,20 +88,26 @@ public class TicketService {
     }
 
     public Page<TicketEntity> searchTickets(String eventName, String packageName, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("cod"));
 
-        List<TicketEntity> allTickets = ticketRepository.findAll();
+        return ticketRepository.findAll(searchSpec(eventName, packageName), pageable);
+    }
 
-        List<TicketEntity> filtered = allTickets.stream()
-                .filter(t -> eventName == null || (t.getEveniment() != null && t.getEveniment().getNume().toLowerCase().contains(eventName.toLowerCase())))
-                .filter(t -> packageName == null || (t.getPachet() != null && t.getPachet().getNume().toLowerCase().contains(packageName.toLowerCase())))
-                .toList();
+    public Slice<TicketEntity> searchTicketsAfter(String eventName, String packageName, String afterCod, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("cod"));
+
+        Specification<TicketEntity> spec = searchSpec(eventName, packageName)
+                .and(TicketSpecifications.codDupa(afterCod));
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), filtered.size());
+        List<TicketEntity> rows = ticketRepository.findBy(spec, q -> q.sortBy(pageable.getSort()).limit(size + 1).all());
 
-        List<TicketEntity> paginated = start >= filtered.size() ? List.of() : filtered.subList(start, end);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+    }
 
-        return new PageImpl<>(paginated, pageable, filtered.size());
+    private Specification<TicketEntity> searchSpec(String eventName, String packageName) {
+        return Specification.where(TicketSpecifications.numeEvenimentContine(eventName))
+                .and(TicketSpecifications.numePachetContine(packageName))
+                .and(TicketSpecifications.cuEvenimentSiPachet());
     }
 }
@@ -26,6 +26,10 @@ public class EventEntity {
     @Column(name = "numarLocuri")
     private Integer numarLocuri;
 
+    @Version
+    @Column(nullable = false)
+    private Integer versiune;
+
     public EventEntity() {}
 
     public EventEntity(Integer id, UserEntity owner, String nume, String locatie, String descriere, Integer numarLocuri) {
@@ -54,4 +58,6 @@ public class EventEntity {
 
     public Integer getNumarLocuri() { return numarLocuri; }
     public void setNumarLocuri(Integer numarLocuri) { this.numarLocuri = numarLocuri; }
+
+    public Integer getVersiune() { return versiune; }
 }
\ No newline at end of file
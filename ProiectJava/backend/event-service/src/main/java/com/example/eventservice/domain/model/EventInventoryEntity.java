@@ -0,0 +1,41 @@
+package com.example.eventservice.domain.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "inventar_evenimente")
+public class EventInventoryEntity {
+
+    @Id
+    @Column(name = "eveniment_id")
+    private Integer evenimentId;
+
+    // bilete vandute direct pe eveniment
+    @Column(name = "locuri_vandute", nullable = false)
+    private Integer locuriVandute = 0;
+
+    // locuri ocupate de biletele pachetelor care contin evenimentul
+    @Column(name = "locuri_pachete", nullable = false)
+    private Integer locuriPachete = 0;
+
+    public EventInventoryEntity() {}
+
+    public EventInventoryEntity(Integer evenimentId, Integer locuriVandute, Integer locuriPachete) {
+        this.evenimentId = evenimentId;
+        this.locuriVandute = locuriVandute;
+        this.locuriPachete = locuriPachete;
+    }
+
+    public Integer getEvenimentId() { return evenimentId; }
+    public void setEvenimentId(Integer evenimentId) { this.evenimentId = evenimentId; }
+
+    public Integer getLocuriVandute() { return locuriVandute; }
+    public void setLocuriVandute(Integer locuriVandute) { this.locuriVandute = locuriVandute; }
+
+    public Integer getLocuriPachete() { return locuriPachete; }
+    public void setLocuriPachete(Integer locuriPachete) { this.locuriPachete = locuriPachete; }
+
+    public int getLocuriOcupate() {
+        return locuriVandute + locuriPachete;
+    }
+}
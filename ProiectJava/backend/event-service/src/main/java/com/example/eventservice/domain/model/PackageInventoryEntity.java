@@ -0,0 +1,28 @@
+package com.example.eventservice.domain.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "inventar_pachete")
+public class PackageInventoryEntity {
+
+    @Id
+    @Column(name = "pachet_id")
+    private Integer pachetId;
+
+    @Column(name = "bilete_vandute", nullable = false)
+    private Integer bileteVandute = 0;
+
+    public PackageInventoryEntity() {}
+
+    public PackageInventoryEntity(Integer pachetId, Integer bileteVandute) {
+        this.pachetId = pachetId;
+        this.bileteVandute = bileteVandute;
+    }
+
+    public Integer getPachetId() { return pachetId; }
+    public void setPachetId(Integer pachetId) { this.pachetId = pachetId; }
+
+    public Integer getBileteVandute() { return bileteVandute; }
+    public void setBileteVandute(Integer bileteVandute) { this.bileteVandute = bileteVandute; }
+}
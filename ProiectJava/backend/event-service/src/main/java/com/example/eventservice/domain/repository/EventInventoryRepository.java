@@ -0,0 +1,47 @@
+package com.example.eventservice.domain.repository;
+
+import com.example.eventservice.domain.model.EventInventoryEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EventInventoryRepository extends JpaRepository<EventInventoryEntity, Integer>
+{
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from EventInventoryEntity i")
+    List<EventInventoryEntity> findAllForUpdate();
+
+    @Modifying
+    @Query("update EventInventoryEntity i set i.locuriVandute = i.locuriVandute + :delta where i.evenimentId = :eventId")
+    int addLocuriVandute(@Param("eventId") Integer eventId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update EventInventoryEntity i set i.locuriPachete = i.locuriPachete + :delta where i.evenimentId = :eventId")
+    int addLocuriPachete(@Param("eventId") Integer eventId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update EventInventoryEntity i set i.locuriPachete = i.locuriPachete + :delta " +
+            "where i.evenimentId in (select pe.eveniment.id from PackageEventEntity pe where pe.pachet.id = :packageId)")
+    int addLocuriPacheteForPackage(@Param("packageId") Integer packageId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update EventInventoryEntity i set i.locuriVandute = i.locuriVandute + 1 " +
+            "where i.evenimentId = :eventId " +
+            "and i.locuriVandute + i.locuriPachete < (select coalesce(e.numarLocuri, 0) from EventEntity e where e.id = :eventId)")
+    int reserveLoc(@Param("eventId") Integer eventId);
+
+    @Query("select count(i) from EventInventoryEntity i " +
+            "where i.evenimentId in (select pe.eveniment.id from PackageEventEntity pe where pe.pachet.id = :packageId)")
+    long countForPackage(@Param("packageId") Integer packageId);
+
+    @Modifying
+    @Query("update EventInventoryEntity i set i.locuriPachete = i.locuriPachete + 1 " +
+            "where i.evenimentId in (select pe.eveniment.id from PackageEventEntity pe where pe.pachet.id = :packageId) " +
+            "and i.locuriVandute + i.locuriPachete < (select coalesce(e.numarLocuri, 0) from EventEntity e where e.id = i.evenimentId)")
+    int reserveLocForPackage(@Param("packageId") Integer packageId);
+}
@@ -3,10 +3,11 @@ package com.example.eventservice.domain.repository;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.List;
 
-public interface EventRepository extends JpaRepository<EventEntity, Integer>
+public interface EventRepository extends JpaRepository<EventEntity, Integer>, JpaSpecificationExecutor<EventEntity>
 {
     List<EventEntity> findByOwner(UserEntity owner);
     List<EventEntity> findByNumeContainingIgnoreCase(String nume);
@@ -0,0 +1,77 @@
+package com.example.eventservice.domain.repository;
+
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.EventInventoryEntity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtrele de cautare pentru evenimente, traduse in predicate SQL.
+ * Un filtru null nu restrictioneaza rezultatul.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {}
+
+    public static Specification<EventEntity> numeContine(String name) {
+        return (root, query, cb) -> name == null ? null
+                : cb.like(cb.lower(root.<String>get("nume")), likePattern(name), '\\');
+    }
+
+    public static Specification<EventEntity> locatieContine(String location) {
+        return (root, query, cb) -> location == null ? null
+                : cb.like(cb.lower(root.<String>get("locatie")), likePattern(location), '\\');
+    }
+
+    public static Specification<EventEntity> locuriDisponibileMinim(Integer availableTickets) {
+        return (root, query, cb) -> {
+            if (availableTickets == null || availableTickets <= 0) {
+                return null;
+            }
+            Expression<Integer> disponibile = cb.diff(
+                    cb.coalesce(root.<Integer>get("numarLocuri"), 0),
+                    locuriOcupate(query, cb, root.<Integer>get("id")));
+            return cb.ge(disponibile, availableTickets);
+        };
+    }
+
+    public static Specification<EventEntity> idDupa(Integer afterId) {
+        return (root, query, cb) -> afterId == null ? null : cb.greaterThan(root.<Integer>get("id"), afterId);
+    }
+
+    // owner-ul e EAGER; il aducem in acelasi select, dar nu si in interogarea de count
+    public static Specification<EventEntity> cuOwner() {
+        return (root, query, cb) -> {
+            if (!isCountQuery(query)) {
+                root.fetch("owner", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /** coalesce((select vandute + pachete from inventar_evenimente where eveniment_id = :id), 0) */
+    static Expression<Integer> locuriOcupate(CriteriaQuery<?> query, CriteriaBuilder cb, Expression<Integer> eventId) {
+        Subquery<Integer> ocupate = query.subquery(Integer.class);
+        var inv = ocupate.from(EventInventoryEntity.class);
+        ocupate.select(cb.sum(inv.<Integer>get("locuriVandute"), inv.<Integer>get("locuriPachete")))
+                .where(cb.equal(inv.get("evenimentId"), eventId));
+        return cb.coalesce(ocupate, 0);
+    }
+
+    static String likePattern(String value) {
+        String escaped = value.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    static boolean isCountQuery(CriteriaQuery<?> query) {
+        Class<?> resultType = query.getResultType();
+        return resultType == Long.class || resultType == long.class;
+    }
+}
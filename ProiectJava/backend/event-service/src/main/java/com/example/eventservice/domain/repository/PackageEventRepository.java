@@ -5,7 +5,10 @@ import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.PackageEventEntity;
 import com.example.eventservice.domain.model.PackageEventIdEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PackageEventRepository extends JpaRepository<PackageEventEntity, PackageEventIdEntity>
@@ -15,4 +18,13 @@ public interface PackageEventRepository extends JpaRepository<PackageEventEntity
     void deleteByPachet(PackageEntity pachet);
     void deleteByEveniment(EventEntity eveniment);
     void deleteByPachetAndEveniment(PackageEntity pachet, EventEntity eveniment);
+    long countByPachet(PackageEntity pachet);
+
+    // (pachet_id, numar evenimente, minimul locurilor ramase pe evenimentele pachetului)
+    @Query("select pe.pachet.id, count(pe), " +
+            "min(coalesce(e.numarLocuri, 0) - coalesce(i.locuriVandute + i.locuriPachete, 0)) " +
+            "from PackageEventEntity pe join pe.eveniment e " +
+            "left join EventInventoryEntity i on i.evenimentId = e.id " +
+            "where pe.pachet.id in :packageIds group by pe.pachet.id")
+    List<Object[]> summarizeByPachetIds(@Param("packageIds") Collection<Integer> packageIds);
 }
@@ -0,0 +1,28 @@
+package com.example.eventservice.domain.repository;
+
+import com.example.eventservice.domain.model.PackageInventoryEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PackageInventoryRepository extends JpaRepository<PackageInventoryEntity, Integer>
+{
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from PackageInventoryEntity i")
+    List<PackageInventoryEntity> findAllForUpdate();
+
+    @Modifying
+    @Query("update PackageInventoryEntity i set i.bileteVandute = i.bileteVandute + :delta where i.pachetId = :packageId")
+    int addBileteVandute(@Param("packageId") Integer packageId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("update PackageInventoryEntity i set i.bileteVandute = i.bileteVandute + 1 " +
+            "where i.pachetId = :packageId " +
+            "and i.bileteVandute < (select coalesce(p.numarLocuri, 0) from PackageEntity p where p.id = :packageId)")
+    int reserveBilet(@Param("packageId") Integer packageId);
+}
@@ -3,10 +3,11 @@ package com.example.eventservice.domain.repository;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.List;
 
-public interface PackageRepository extends JpaRepository<PackageEntity, Integer>
+public interface PackageRepository extends JpaRepository<PackageEntity, Integer>, JpaSpecificationExecutor<PackageEntity>
 {
     List<PackageEntity> findByOwner(UserEntity owner);
     List<PackageEntity> findByNumeContainingIgnoreCase(String nume);
@@ -0,0 +1,103 @@
+package com.example.eventservice.domain.repository;
+
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.PackageEventEntity;
+import com.example.eventservice.domain.model.PackageInventoryEntity;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.example.eventservice.domain.repository.EventSpecifications.isCountQuery;
+import static com.example.eventservice.domain.repository.EventSpecifications.likePattern;
+import static com.example.eventservice.domain.repository.EventSpecifications.locuriOcupate;
+
+/**
+ * Filtrele de cautare pentru pachete, traduse in predicate SQL.
+ * Un filtru null nu restrictioneaza rezultatul.
+ */
+public final class PackageSpecifications {
+
+    private PackageSpecifications() {}
+
+    public static Specification<PackageEntity> numeContine(String name) {
+        return (root, query, cb) -> name == null ? null
+                : cb.like(cb.lower(root.<String>get("nume")), likePattern(name), '\\');
+    }
+
+    public static Specification<PackageEntity> descriereContine(String type) {
+        return (root, query, cb) -> type == null ? null
+                : cb.like(cb.lower(root.<String>get("descriere")), likePattern(type), '\\');
+    }
+
+    public static Specification<PackageEntity> contineEveniment(String eventName) {
+        return (root, query, cb) -> {
+            if (eventName == null) {
+                return null;
+            }
+            Subquery<Integer> legatura = query.subquery(Integer.class);
+            var pe = legatura.from(PackageEventEntity.class);
+            Join<PackageEventEntity, EventEntity> ev = pe.join("eveniment");
+            legatura.select(cb.literal(1))
+                    .where(cb.equal(pe.get("pachet").get("id"), root.get("id")),
+                            cb.like(cb.lower(ev.<String>get("nume")), likePattern(eventName), '\\'));
+            return cb.exists(legatura);
+        };
+    }
+
+    /**
+     * Locurile disponibile ale unui pachet sunt minimul dintre locurile ramase pe pachet
+     * si locurile ramase pe fiecare eveniment inclus; un pachet fara evenimente are 0.
+     */
+    public static Specification<PackageEntity> locuriDisponibileMinim(Integer availableTickets) {
+        return (root, query, cb) -> {
+            if (availableTickets == null || availableTickets <= 0) {
+                return null;
+            }
+
+            Subquery<Integer> vandute = query.subquery(Integer.class);
+            var inv = vandute.from(PackageInventoryEntity.class);
+            vandute.select(inv.<Integer>get("bileteVandute"))
+                    .where(cb.equal(inv.get("pachetId"), root.get("id")));
+
+            Expression<Integer> ramasePePachet = cb.diff(
+                    cb.coalesce(root.<Integer>get("numarLocuri"), 0),
+                    cb.coalesce(vandute, 0));
+
+            Subquery<Integer> areEvenimente = query.subquery(Integer.class);
+            var link = areEvenimente.from(PackageEventEntity.class);
+            areEvenimente.select(cb.literal(1))
+                    .where(cb.equal(link.get("pachet").get("id"), root.get("id")));
+
+            Subquery<Integer> evenimentPlin = query.subquery(Integer.class);
+            var pe = evenimentPlin.from(PackageEventEntity.class);
+            Join<PackageEventEntity, EventEntity> ev = pe.join("eveniment");
+            Expression<Integer> ramasePeEveniment = cb.diff(
+                    cb.coalesce(ev.<Integer>get("numarLocuri"), 0),
+                    locuriOcupate(query, cb, ev.<Integer>get("id")));
+            evenimentPlin.select(cb.literal(1))
+                    .where(cb.equal(pe.get("pachet").get("id"), root.get("id")),
+                            cb.lt(ramasePeEveniment, availableTickets));
+
+            return cb.and(
+                    cb.ge(ramasePePachet, availableTickets),
+                    cb.exists(areEvenimente),
+                    cb.not(cb.exists(evenimentPlin)));
+        };
+    }
+
+    public static Specification<PackageEntity> idDupa(Integer afterId) {
+        return (root, query, cb) -> afterId == null ? null : cb.greaterThan(root.<Integer>get("id"), afterId);
+    }
+
+    public static Specification<PackageEntity> cuOwner() {
+        return (root, query, cb) -> {
+            if (!isCountQuery(query)) {
+                root.fetch("owner", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+}
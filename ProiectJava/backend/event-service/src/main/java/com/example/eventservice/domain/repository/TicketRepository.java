@@ -4,11 +4,25 @@ import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.TicketEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.*;
 
-public interface TicketRepository extends JpaRepository<TicketEntity, String>
+public interface TicketRepository extends JpaRepository<TicketEntity, String>, JpaSpecificationExecutor<TicketEntity>
 {
     List<TicketEntity> findByPachet(PackageEntity pachet);
     List<TicketEntity> findByEveniment(EventEntity eveniment);
     boolean existsByCod(String cod);
-}
\ No newline at end of file
+    long countByEveniment(EventEntity eveniment);
+    long countByPachet(PackageEntity pachet);
+
+    @Query("select t from TicketEntity t left join fetch t.eveniment left join fetch t.pachet where t.cod in :coduri")
+    List<TicketEntity> findAllWithDetailsByCodIn(@Param("coduri") Collection<String> coduri);
+
+    @Query("select t.eveniment.id, count(t) from TicketEntity t where t.eveniment is not null group by t.eveniment.id")
+    List<Object[]> countGroupedByEveniment();
+
+    @Query("select t.pachet.id, count(t) from TicketEntity t where t.pachet is not null group by t.pachet.id")
+    List<Object[]> countGroupedByPachet();
+}
@@ -0,0 +1,72 @@
+package com.example.eventservice.domain.repository;
+
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.TicketEntity;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import static com.example.eventservice.domain.repository.EventSpecifications.isCountQuery;
+import static com.example.eventservice.domain.repository.EventSpecifications.likePattern;
+
+/**
+ * Filtrele de cautare pentru bilete, traduse in predicate SQL.
+ * Un filtru null nu restrictioneaza rezultatul.
+ */
+public final class TicketSpecifications {
+
+    private TicketSpecifications() {}
+
+    public static Specification<TicketEntity> numeEvenimentContine(String eventName) {
+        return (root, query, cb) -> eventName == null ? null
+                : cb.like(cb.lower(leftJoin(root, query, "eveniment").<String>get("nume")), likePattern(eventName), '\\');
+    }
+
+    public static Specification<TicketEntity> numePachetContine(String packageName) {
+        return (root, query, cb) -> packageName == null ? null
+                : cb.like(cb.lower(leftJoin(root, query, "pachet").<String>get("nume")), likePattern(packageName), '\\');
+    }
+
+    public static Specification<TicketEntity> codDupa(String afterCod) {
+        return (root, query, cb) -> afterCod == null ? null : cb.greaterThan(root.<String>get("cod"), afterCod);
+    }
+
+    // evenimentul, pachetul si owner-ii lor sunt EAGER; ii aducem intr-un singur select
+    public static Specification<TicketEntity> cuEvenimentSiPachet() {
+        return (root, query, cb) -> {
+            if (!isCountQuery(query)) {
+                Join<TicketEntity, EventEntity> ev = leftJoin(root, query, "eveniment");
+                ((Fetch<TicketEntity, EventEntity>) ev).fetch("owner", JoinType.LEFT);
+                Join<TicketEntity, PackageEntity> pachet = leftJoin(root, query, "pachet");
+                ((Fetch<TicketEntity, PackageEntity>) pachet).fetch("owner", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Un singur LEFT JOIN per asociere, folosit si de filtre si de fetch: biletele de pachet au
+     * eveniment null (si invers), deci un INNER JOIN le-ar pierde. In afara interogarii de count
+     * join-ul este un fetch, pe care il refolosesc filtrele aplicate ulterior.
+     */
+    @SuppressWarnings("unchecked")
+    private static <Y> Join<TicketEntity, Y> leftJoin(From<?, TicketEntity> root, CriteriaQuery<?> query, String attribute) {
+        for (Fetch<TicketEntity, ?> fetch : root.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute)) {
+                return (Join<TicketEntity, Y>) fetch;
+            }
+        }
+        for (Join<TicketEntity, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute)) {
+                return (Join<TicketEntity, Y>) join;
+            }
+        }
+        return isCountQuery(query)
+                ? root.join(attribute, JoinType.LEFT)
+                : (Join<TicketEntity, Y>) root.<TicketEntity, Y>fetch(attribute, JoinType.LEFT);
+    }
+}
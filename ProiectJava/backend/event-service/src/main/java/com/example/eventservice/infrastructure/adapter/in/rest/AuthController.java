@@ -2,6 +2,8 @@ package com.example.eventservice.infrastructure.adapter.in.rest;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.common.auth.RevocationSet;
+import com.example.common.auth.TokenValidationCache;
 import com.example.eventservice.application.dto.UserDTO;
 import com.example.eventservice.application.mapper.UserMapper;
 import com.example.eventservice.application.service.TokenBlacklistService;
@@ -9,11 +11,14 @@ import com.example.eventservice.application.service.UserService;
 import com.example.eventservice.domain.model.UserEntity;
 import com.example.eventservice.infrastructure.adapter.out.idm.IdmAuthClient;
 import com.example.idm.grpc.LoginResponse;
+import io.grpc.StatusRuntimeException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,16 +31,24 @@ import java.util.Map;
 @Tag(name = "Authentication", description = "Autentificare si Inregistrare")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final IdmAuthClient idmAuthClient;
     private final UserService userService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final TokenValidationCache tokenValidationCache;
+    private final RevocationSet revocationSet;
 
     public AuthController(IdmAuthClient idmAuthClient,
                           UserService userService,
-                          TokenBlacklistService tokenBlacklistService) {
+                          TokenBlacklistService tokenBlacklistService,
+                          TokenValidationCache tokenValidationCache,
+                          RevocationSet revocationSet) {
         this.idmAuthClient = idmAuthClient;
         this.userService = userService;
         this.tokenBlacklistService = tokenBlacklistService;
+        this.tokenValidationCache = tokenValidationCache;
+        this.revocationSet = revocationSet;
     }
 
     @Operation(summary = "Inregistrare utilizator nou")
@@ -125,6 +138,9 @@ public class AuthController {
                 Instant expiryDate = decoded.getExpiresAt().toInstant();
 
                 tokenBlacklistService.blacklistToken(token, expiryDate);
+                tokenValidationCache.invalidate(token);
+                revocationSet.add(decoded.getId(), expiryDate.getEpochSecond());
+                revokeAtIdm(token);
 
                 return ResponseEntity.ok(Map.of("message", "V-ati delogat cu succes!"));
 
@@ -140,4 +156,13 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(Map.of("message", "Format autorizare invalid."));
     }
-}
\ No newline at end of file
+
+    // revocarea la IDM ajunge si la serviciile care verifica token-ul local
+    private void revokeAtIdm(String token) {
+        try {
+            idmAuthClient.logout(token);
+        } catch (StatusRuntimeException e) {
+            log.warn("Revocarea token-ului la IDM a esuat: {}", e.getStatus().getCode());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.eventservice.infrastructure.adapter.in.rest;
+
+import com.example.eventservice.application.service.CatalogVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * GET conditionat: ETag-ul (strong) se obtine dintr-o versiune a datelor (a catalogului sau a
+ * resursei) si din URL-ul complet al cererii; Last-Modified este momentul ultimei modificari a
+ * tabelelor din care se construieste raspunsul. Cand If-None-Match (sau, in lipsa lui,
+ * If-Modified-Since) se potriveste, raspunsul 304 este deja scris si metoda controller-ului
+ * returneaza null.
+ * Raspunsurile publice pot fi pastrate catalog.http.max-age-seconds (implicit 5, cat TTL-ul
+ * implicit al filtrului CoalescingCache din gateway), cele protejate doar de client, cu revalidare.
+ */
+@Component
+class ConditionalRequests {
+
+    private final String publicCacheControl;
+
+    ConditionalRequests(@Value("${catalog.http.max-age-seconds:5}") long maxAgeSeconds) {
+        this.publicCacheControl = "public, max-age=" + maxAgeSeconds;
+    }
+
+    boolean notModified(CatalogVersionService.Version version, boolean privat) {
+        return notModified(version.tag(), version.lastModified(), privat);
+    }
+
+    boolean notModified(String version, Instant lastModified, boolean privat) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        ServletWebRequest webRequest = new ServletWebRequest(request, attributes.getResponse());
+
+        String url = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+
+        // raspunsurile protejate nu trebuie pastrate de cache-uri partajate
+        if (privat) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            webRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        } else {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, publicCacheControl);
+        }
+
+        // Last-Modified are rezolutie de o secunda: o modificare din aceeasi secunda nu l-ar schimba,
+        // deci pana trece secunda clientul revalideaza doar cu ETag-ul
+        long lastModifiedMillis = lastModified != null && lastModified.isBefore(Instant.now().minusSeconds(1))
+                ? lastModified.toEpochMilli()
+                : -1;
+
+        return webRequest.checkNotModified("\"" + hash(version + "|" + url) + "\"", lastModifiedMillis);
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponibil", e);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.eventservice.infrastructure.adapter.in.rest;
 
+import com.example.common.web.CursorPages;
 import com.example.eventservice.application.auth.AuthenticatedUser;
 import com.example.eventservice.application.auth.AuthorizationService;
 import com.example.eventservice.application.dto.EventDTO;
 import com.example.eventservice.application.mapper.EventMapper;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.UserEntity;
+import com.example.eventservice.application.service.AvailabilitySnapshotService;
+import com.example.eventservice.application.service.CatalogVersionService;
+import com.example.eventservice.application.service.CatalogVersionService.Scope;
+import com.example.eventservice.application.service.AvailabilitySnapshotService.EventAvailability;
 import com.example.eventservice.application.service.EventService;
 import com.example.eventservice.application.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +25,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -38,8 +45,21 @@ public class EventController {
     @Autowired
     private AuthorizationService authorizationService;
 
+    @Autowired
+    private AvailabilitySnapshotService availabilitySnapshotService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
     private EntityModel<EventDTO> toModel(EventEntity event) {
-        EventDTO dto = enrichEvent(event);
+        return toModel(event, availabilitySnapshotService.forEvents(List.of(event)));
+    }
+
+    private EntityModel<EventDTO> toModel(EventEntity event, Map<Integer, EventAvailability> snapshot) {
+        EventDTO dto = enrichEvent(event, snapshot.get(event.getId()));
         EntityModel<EventDTO> model = EntityModel.of(dto);
 
         model.add(linkTo(methodOn(EventController.class).getEventById(event.getId(), null)).withSelfRel());
@@ -49,17 +69,11 @@ public class EventController {
         return model;
     }
 
-    private EventDTO enrichEvent(EventEntity event) {
+    private EventDTO enrichEvent(EventEntity event, EventAvailability availability) {
         EventDTO dto = EventMapper.fromEntity(event);
 
-        int soldOnEvent = eventService.countTicketsSold(event);
-        int packageImpact = eventService.countPackageTicketsImpactForEvent(event);
-
-        int capacity = event.getNumarLocuri() != null ? event.getNumarLocuri() : 0;
-        int available = capacity - soldOnEvent - packageImpact;
-
-        dto.setTicketsSold(soldOnEvent);
-        dto.setAvailableTickets(Math.max(available, 0));
+        dto.setTicketsSold(availability.getTicketsSold());
+        dto.setAvailableTickets(availability.getAvailable());
 
         if (event.getOwner() != null)
             dto.setOwnerEmail(event.getOwner().getEmail());
@@ -67,7 +81,8 @@ public class EventController {
         return dto;
     }
 
-    @Operation(summary = "Listare evenimente", description = "Returneaza o lista paginata de evenimente.")
+    @Operation(summary = "Listare evenimente", description = "Returneaza o lista paginata de evenimente. "
+            + "Cu parametrul cursor (gol pentru prima pagina) paginarea se face dupa cheie, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Lista de evenimente a fost returnata.")
     @ApiResponse(responseCode = "404", description = "Not Found. Resursa nu a fost gasita.")
     @GetMapping
@@ -78,6 +93,7 @@ public class EventController {
             @RequestParam(required = false, name = "available_tickets") Integer availableTickets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             PagedResourcesAssembler<EventEntity> assembler) {
 
 //        AuthenticatedUser current = authorizationService.requireUser(
@@ -87,9 +103,21 @@ public class EventController {
 //                UserEntity.Role.CLIENT
 //        );
 
-        var resultPage = eventService.searchEvents(name, location, availableTickets, page, size);
+        if (conditionalRequests.notModified(catalogVersionService.current(Scope.EVENTS), false)) {
+            return null;
+        }
 
-        PagedModel<EntityModel<EventDTO>> pagedModel = assembler.toModel(resultPage, this::toModel);
+        PagedModel<EntityModel<EventDTO>> pagedModel;
+
+        if (cursor != null) {
+            var slice = eventService.searchEventsAfter(name, location, availableTickets, CursorPages.decode(cursor, Integer::valueOf), size);
+            var snapshot = availabilitySnapshotService.forEvents(slice.getContent());
+            pagedModel = CursorPages.toModel(slice, e -> toModel(e, snapshot), EventEntity::getId);
+        } else {
+            var resultPage = eventService.searchEvents(name, location, availableTickets, page, size);
+            var snapshot = availabilitySnapshotService.forEvents(resultPage.getContent());
+            pagedModel = assembler.toModel(resultPage, e -> toModel(e, snapshot));
+        }
 
         // Parent link la nivel de colectie (pentru Bruno/navigare inapoi la root daca e cazul, sau self curat)
         // Aici am pus link catre controller root ca parent generic
@@ -113,10 +141,22 @@ public class EventController {
 //                UserEntity.Role.CLIENT
 //        );
 
-        return eventService.getEventById(id)
-                .map(this::toModel)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        EventEntity event = eventService.getEventById(id).orElse(null);
+        if (event == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // versiunea evenimentului si randul lui de inventar, citite o singura data
+        Map<Integer, EventAvailability> snapshot = availabilitySnapshotService.forEvents(List.of(event));
+        EventAvailability availability = snapshot.get(id);
+        String version = "E" + id + ":" + event.getVersiune()
+                + ":" + availability.getTicketsSold() + ":" + availability.getAvailable();
+
+        if (conditionalRequests.notModified(version, catalogVersionService.lastModified(Scope.EVENTS), false)) {
+            return null;
+        }
+
+        return ResponseEntity.ok(toModel(event, snapshot));
     }
 
     @Operation(summary = "Creeaza un eveniment nou")
@@ -1,14 +1,18 @@
 package com.example.eventservice.infrastructure.adapter.in.rest;
 
+import com.example.common.web.CursorPages;
 import com.example.eventservice.application.auth.AuthenticatedUser;
 import com.example.eventservice.application.dto.PackageDTO;
 import com.example.eventservice.application.mapper.PackageMapper;
+import com.example.eventservice.application.service.AvailabilitySnapshotService;
+import com.example.eventservice.application.service.AvailabilitySnapshotService.PackageAvailability;
+import com.example.eventservice.application.service.CatalogVersionService;
+import com.example.eventservice.application.service.CatalogVersionService.Scope;
 import com.example.eventservice.application.service.PackageService;
 import com.example.eventservice.application.service.UserService;
 import com.example.eventservice.application.auth.AuthorizationService;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.UserEntity;
-import com.example.eventservice.domain.repository.TicketRepository;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,6 +25,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -40,10 +46,20 @@ public class PackageController {
     private AuthorizationService authorizationService;
 
     @Autowired
-    private TicketRepository ticketRepository;
+    private AvailabilitySnapshotService availabilitySnapshotService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ConditionalRequests conditionalRequests;
 
     private EntityModel<PackageDTO> toModel(PackageEntity entity) {
-        PackageDTO dto = enrichPackage(entity);
+        return toModel(entity, availabilitySnapshotService.forPackages(List.of(entity)));
+    }
+
+    private EntityModel<PackageDTO> toModel(PackageEntity entity, Map<Integer, PackageAvailability> snapshot) {
+        PackageDTO dto = enrichPackage(entity, snapshot.get(entity.getId()));
         EntityModel<PackageDTO> model = EntityModel.of(dto);
 
         model.add(linkTo(methodOn(PackageController.class).getPackageById(entity.getId(), null)).withSelfRel());
@@ -53,26 +69,22 @@ public class PackageController {
         return model;
     }
 
-    private PackageDTO enrichPackage(PackageEntity entity) {
+    private PackageDTO enrichPackage(PackageEntity entity, PackageAvailability availability) {
         PackageDTO dto = PackageMapper.fromEntity(entity);
 
         if (entity.getOwner() != null) {
             dto.setOwnerEmail(entity.getOwner().getEmail());
         }
 
-        int countEvents = packageService.countEventsInPackage(entity);
-        dto.setNumberOfEvents(countEvents);
-
-        int countAvailableTickets = packageService.calculeazaLocuriDisponibile(entity);
-        dto.setAvailableTickets(countAvailableTickets);
-
-        int realSales = ticketRepository.findByPachet(entity).size();
-        dto.setTicketsSold(realSales);
+        dto.setNumberOfEvents(availability.getEventCount());
+        dto.setAvailableTickets(availability.getAvailable());
+        dto.setTicketsSold(availability.getTicketsSold());
 
         return dto;
     }
 
-    @Operation(summary = "Listare pachete", description = "Returneaza o lista paginata de pachete.")
+    @Operation(summary = "Listare pachete", description = "Returneaza o lista paginata de pachete. "
+            + "Cu parametrul cursor (gol pentru prima pagina) paginarea se face dupa cheie, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Ok. Lista de pachete a fost returnata.")
     @ApiResponse(responseCode = "404", description = "Not Found. Resursa nu a fost gasita.")
     @GetMapping
@@ -84,6 +96,7 @@ public class PackageController {
             @RequestParam(required = false, name = "available_tickets") Integer availableTickets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             PagedResourcesAssembler<PackageEntity> assembler) {
 
 //        AuthenticatedUser current = authorizationService.requireUser(
@@ -93,9 +106,21 @@ public class PackageController {
 //                UserEntity.Role.CLIENT
 //        );
 
-        var resultPage = packageService.searchPackages(name, type, eventName, availableTickets, page, size);
+        if (conditionalRequests.notModified(catalogVersionService.current(Scope.PACKAGES), false)) {
+            return null;
+        }
+
+        PagedModel<EntityModel<PackageDTO>> pagedModel;
 
-        PagedModel<EntityModel<PackageDTO>> pagedModel = assembler.toModel(resultPage, this::toModel);
+        if (cursor != null) {
+            var slice = packageService.searchPackagesAfter(name, type, eventName, availableTickets, CursorPages.decode(cursor, Integer::valueOf), size);
+            var snapshot = availabilitySnapshotService.forPackages(slice.getContent());
+            pagedModel = CursorPages.toModel(slice, p -> toModel(p, snapshot), PackageEntity::getId);
+        } else {
+            var resultPage = packageService.searchPackages(name, type, eventName, availableTickets, page, size);
+            var snapshot = availabilitySnapshotService.forPackages(resultPage.getContent());
+            pagedModel = assembler.toModel(resultPage, p -> toModel(p, snapshot));
+        }
 
         pagedModel.add(linkTo(PackageController.class).withRel("parent"));
 
@@ -117,10 +142,22 @@ public class PackageController {
                 UserEntity.Role.CLIENT
         );
 
-        return packageService.getPackageById(id)
-                .map(this::toModel)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        PackageEntity pachet = packageService.getPackageById(id).orElse(null);
+        if (pachet == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // versiunea pachetului si randul lui de inventar, citite o singura data
+        Map<Integer, PackageAvailability> snapshot = availabilitySnapshotService.forPackages(List.of(pachet));
+        PackageAvailability availability = snapshot.get(id);
+        String version = "P" + id + ":" + pachet.getVersiune() + ":" + availability.getEventCount()
+                + ":" + availability.getTicketsSold() + ":" + availability.getAvailable();
+
+        if (conditionalRequests.notModified(version, catalogVersionService.lastModified(Scope.PACKAGES), true)) {
+            return null;
+        }
+
+        return ResponseEntity.ok(toModel(pachet, snapshot));
     }
 
     @Operation(summary = "Creeaza un pachet nou")
@@ -6,6 +6,8 @@ import com.example.eventservice.application.auth.AuthorizationService;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.PackageEventEntity;
+import com.example.eventservice.application.service.CatalogVersionService;
+import com.example.eventservice.application.service.CatalogVersionService.Scope;
 import com.example.eventservice.application.service.EventService;
 import com.example.eventservice.application.service.PackageEventService;
 import com.example.eventservice.application.service.PackageService;
@@ -44,6 +46,12 @@ public class PackageEventController {
     @Autowired
     private AuthorizationService authorizationService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
     private EntityModel<PackageEventDTO> toModel(PackageEventDTO dto) {
         EntityModel<PackageEventDTO> model = EntityModel.of(dto);
 
@@ -97,7 +105,16 @@ public class PackageEventController {
         EventEntity event = eventService.getEventById(eventId)
                 .orElseThrow(() -> new IllegalArgumentException("Evenimentul nu exista"));
 
-        List<EntityModel<PackageEventDTO>> list = packageEventService.getPackagesForEvent(event).stream()
+        List<PackageEventEntity> relations = packageEventService.getPackagesForEvent(event);
+        String version = "E" + event.getId() + ":" + event.getVersiune() + relations.stream()
+                .map(r -> ":" + r.getPachet().getId() + "." + r.getPachet().getVersiune())
+                .collect(Collectors.joining());
+
+        if (conditionalRequests.notModified(version, catalogVersionService.lastModified(Scope.PACKAGES), true)) {
+            return null;
+        }
+
+        List<EntityModel<PackageEventDTO>> list = relations.stream()
                 .map(this::enrichRelation)
                 .map(this::toModel)
                 .collect(Collectors.toList());
@@ -123,7 +140,17 @@ public class PackageEventController {
         PackageEntity pachet = packageService.getPackageById(packetId)
                 .orElseThrow(() -> new IllegalArgumentException("Pachetul nu exista"));
 
-        List<EntityModel<PackageEventDTO>> list = packageEventService.getEventsForPackage(pachet).stream()
+        // versiunea pachetului si a fiecarui eveniment legat; lista insasi face parte din versiune
+        List<PackageEventEntity> relations = packageEventService.getEventsForPackage(pachet);
+        String version = "P" + pachet.getId() + ":" + pachet.getVersiune() + relations.stream()
+                .map(r -> ":" + r.getEveniment().getId() + "." + r.getEveniment().getVersiune())
+                .collect(Collectors.joining());
+
+        if (conditionalRequests.notModified(version, catalogVersionService.lastModified(Scope.PACKAGES), false)) {
+            return null;
+        }
+
+        List<EntityModel<PackageEventDTO>> list = relations.stream()
                 .map(this::enrichRelation)
                 .map(this::toModel)
                 .collect(Collectors.toList());
@@ -1,22 +1,30 @@
 package com.example.eventservice.infrastructure.adapter.in.rest;
 
+import com.example.common.web.CursorPages;
 import com.example.eventservice.application.auth.AuthenticatedUser;
 import com.example.eventservice.application.auth.AuthorizationService;
 import com.example.eventservice.domain.model.EventEntity;
 import com.example.eventservice.domain.model.PackageEntity;
 import com.example.eventservice.domain.model.TicketEntity;
+import com.example.eventservice.application.service.CatalogVersionService;
+import com.example.eventservice.application.service.CatalogVersionService.Scope;
 import com.example.eventservice.application.service.EventService;
 import com.example.eventservice.application.service.PackageService;
+import com.example.eventservice.application.service.TicketIssuanceService;
 import com.example.eventservice.application.service.TicketService;
 import com.example.eventservice.domain.model.UserEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.mediatype.hal.HalModelBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -37,6 +45,9 @@ public class TicketController {
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private TicketIssuanceService ticketIssuanceService;
+
     @Autowired
     private EventService eventService;
 
@@ -46,6 +57,15 @@ public class TicketController {
     @Autowired
     private AuthorizationService authorizationService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
+    @Value("${tickets.lookup.max-codes:200}")
+    private int maxLookupCodes;
+
     private EntityModel<Map<String, Object>> toModel(TicketEntity ticket) {
         Map<String, Object> data = enrichTicket(ticket);
         EntityModel<Map<String, Object>> model = EntityModel.of(data);
@@ -85,7 +105,8 @@ public class TicketController {
         return data;
     }
 
-    @Operation(summary = "Listare bilete")
+    @Operation(summary = "Listare bilete", description = "Cu parametrul cursor (gol pentru prima pagina) "
+            + "paginarea se face dupa codul biletului, urmand link-ul next.")
     @ApiResponse(responseCode = "200", description = "Ok. Lista biletelor a fost returnata.")
     @ApiResponse(responseCode = "404", description = "Not Found. Resursa nu a fost gasita.")
     @GetMapping("/tickets")
@@ -95,6 +116,7 @@ public class TicketController {
             @RequestParam(required = false) String packageName,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5", name = "items_per_page") int size,
+            @RequestParam(required = false) String cursor,
             PagedResourcesAssembler<TicketEntity> assembler) {
 
         AuthenticatedUser current = authorizationService.requireUser(
@@ -103,9 +125,19 @@ public class TicketController {
                 UserEntity.Role.OWNER_EVENT
         );
 
-        var resultPage = ticketService.searchTickets(eventName, packageName, page, size);
+        if (conditionalRequests.notModified(catalogVersionService.current(Scope.TICKETS), true)) {
+            return null;
+        }
+
+        PagedModel<EntityModel<Map<String, Object>>> pagedModel;
 
-        PagedModel<EntityModel<Map<String, Object>>> pagedModel = assembler.toModel(resultPage, this::toModel);
+        if (cursor != null) {
+            var slice = ticketService.searchTicketsAfter(eventName, packageName, CursorPages.decode(cursor), size);
+            pagedModel = CursorPages.toModel(slice, this::toModel, TicketEntity::getCod);
+        } else {
+            var resultPage = ticketService.searchTickets(eventName, packageName, page, size);
+            pagedModel = assembler.toModel(resultPage, this::toModel);
+        }
         pagedModel.add(linkTo(TicketController.class).slash("tickets").withRel("parent"));
 
         return ResponseEntity.ok(pagedModel);
@@ -126,12 +158,48 @@ public class TicketController {
                 UserEntity.Role.CLIENT
         );
 
+        if (conditionalRequests.notModified(catalogVersionService.current(Scope.TICKETS), true)) {
+            return null;
+        }
+
         return ticketService.getTicketByCode(cod)
                 .map(this::toModel)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Obtine mai multe bilete dupa cod", description = "Corpul cererii este lista de coduri; "
+            + "biletele gasite sunt returnate in ordinea codurilor, cele inexistente sunt omise.")
+    @ApiResponse(responseCode = "200", description = "Ok. Biletele gasite au fost returnate.")
+    @ApiResponse(responseCode = "422", description = "Unprocessable Content. Prea multe coduri.")
+    @PostMapping("/tickets/lookup")
+    public ResponseEntity<RepresentationModel<?>> lookupTickets(
+            @RequestBody List<String> coduri,
+            @RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+
+        AuthenticatedUser current = authorizationService.requireUser(
+                authorizationHeader,
+                UserEntity.Role.ADMIN,
+                UserEntity.Role.OWNER_EVENT,
+                UserEntity.Role.CLIENT
+        );
+
+        if (coduri.size() > maxLookupCodes) {
+            throw new IllegalArgumentException("Cel mult " + maxLookupCodes + " coduri per cerere.");
+        }
+
+        List<EntityModel<Map<String, Object>>> list = ticketService.getTicketsByCodes(coduri).stream()
+                .map(this::toModel)
+                .collect(Collectors.toList());
+
+        RepresentationModel<?> model = HalModelBuilder.halModel()
+                .embed(list, LinkRelation.of("tickets"))
+                .link(linkTo(TicketController.class).slash("tickets").withRel("parent"))
+                .build();
+
+        return ResponseEntity.ok(model);
+    }
+
     @Operation(summary = "Listare bilete pentru un eveniment")
     @ApiResponse(responseCode = "200", description = "Ok. Lista biletelor a fost returnata.")
     @ApiResponse(responseCode = "404", description = "Not Found. Evenimentul nu a fost gasit.")
@@ -157,6 +225,10 @@ public class TicketController {
             }
         }
 
+        if (conditionalRequests.notModified(catalogVersionService.current(Scope.TICKETS), true)) {
+            return null;
+        }
+
         List<EntityModel<Map<String, Object>>> list = ticketService.getTicketsByEvent(eveniment).stream()
                 .map(this::toModel)
                 .collect(Collectors.toList());
@@ -189,6 +261,10 @@ public class TicketController {
             }
         }
 
+        if (conditionalRequests.notModified(catalogVersionService.current(Scope.TICKETS), true)) {
+            return null;
+        }
+
         List<EntityModel<Map<String, Object>>> list = ticketService.getTicketsByPackage(pachet).stream()
                 .map(this::toModel)
                 .collect(Collectors.toList());
@@ -212,7 +288,7 @@ public class TicketController {
                 UserEntity.Role.SERVICE_CLIENT
         );
 
-        TicketEntity ticket = ticketService.createTicketForEvent(eventId);
+        TicketEntity ticket = ticketIssuanceService.issueForEvent(eventId);
         EntityModel<Map<String, Object>> model = toModel(ticket);
         URI location = model.getRequiredLink("self").toUri();
 
@@ -235,7 +311,7 @@ public class TicketController {
                 UserEntity.Role.SERVICE_CLIENT
         );
 
-        TicketEntity ticket = ticketService.createTicketForPackage(packetId);
+        TicketEntity ticket = ticketIssuanceService.issueForPackage(packetId);
         EntityModel<Map<String, Object>> model = toModel(ticket);
         URI location = model.getRequiredLink("self").toUri();
 
@@ -1,15 +1,48 @@
 package com.example.eventservice.infrastructure.adapter.out.idm;
 
+import com.example.common.auth.ValidationBatcher;
 import com.example.idm.grpc.*;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apelurile catre IDM. Fiecare apel are un deadline (idm.deadline-ms, respectiv
+ * idm.login-deadline-ms pentru Login), astfel incat un IDM lent nu blocheaza firele HTTP.
+ */
 @Component
 public class IdmAuthClient {
 
     private final IdmServiceGrpc.IdmServiceBlockingStub stub;
+    private final IdmServiceGrpc.IdmServiceFutureStub futureStub;
+    private final ValidationBatcher batcher;
+    private final long deadlineMs;
+    private final long loginDeadlineMs;
+
+    // validarile in curs; cererile concurente pentru acelasi token asteapta acelasi raspuns
+    private final Map<String, CompletableFuture<ValidateTokenResponse>> inFlight = new ConcurrentHashMap<>();
 
-    public IdmAuthClient(IdmServiceGrpc.IdmServiceBlockingStub stub) {
+    public IdmAuthClient(IdmServiceGrpc.IdmServiceBlockingStub stub,
+                         IdmServiceGrpc.IdmServiceFutureStub futureStub,
+                         @Value("${idm.validate.batching:true}") boolean batching,
+                         @Value("${idm.validate.max-batch:100}") int maxBatchSize,
+                         @Value("${idm.validate.max-in-flight:4}") int maxInFlight,
+                         @Value("${idm.deadline-ms:2000}") long deadlineMs,
+                         @Value("${idm.login-deadline-ms:5000}") long loginDeadlineMs) {
         this.stub = stub;
+        this.futureStub = futureStub;
+        this.batcher = batching ? new ValidationBatcher(futureStub, maxBatchSize, maxInFlight, deadlineMs) : null;
+        this.deadlineMs = deadlineMs;
+        this.loginDeadlineMs = loginDeadlineMs;
     }
 
     public LoginResponse login(String username, String password) {
@@ -18,22 +51,77 @@ public class IdmAuthClient {
                 .setPassword(password)
                 .build();
 
-        return stub.login(request);
+        return stub.withDeadlineAfter(loginDeadlineMs, TimeUnit.MILLISECONDS).login(request);
     }
 
     public ValidateTokenResponse validate(String token) {
+        return await(validateAsync(token));
+    }
+
+    public CompletableFuture<ValidateTokenResponse> validateAsync(String token) {
+        CompletableFuture<ValidateTokenResponse> mine = new CompletableFuture<>();
+        CompletableFuture<ValidateTokenResponse> existing = inFlight.putIfAbsent(token, mine);
+        if (existing != null) {
+            return existing;
+        }
+
+        mine.whenComplete((r, t) -> inFlight.remove(token, mine));
+
+        if (batcher != null) {
+            batcher.submit(token, mine);
+        } else {
+            TokenRequest request = TokenRequest.newBuilder()
+                    .setToken(token)
+                    .build();
+            completeWith(futureStub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).validateToken(request), mine);
+        }
+        return mine;
+    }
+
+    public LogoutResponse logout(String token) {
         TokenRequest request = TokenRequest.newBuilder()
                 .setToken(token)
                 .build();
 
-        return stub.validateToken(request);
+        return stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).logout(request);
     }
 
-    public LogoutResponse logout(String token) {
+    public RevocationStatusResponse checkRevoked(String token) {
+        return await(checkRevokedAsync(token));
+    }
+
+    public CompletableFuture<RevocationStatusResponse> checkRevokedAsync(String token) {
         TokenRequest request = TokenRequest.newBuilder()
                 .setToken(token)
                 .build();
 
-        return stub.logout(request);
+        CompletableFuture<RevocationStatusResponse> result = new CompletableFuture<>();
+        completeWith(futureStub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).checkRevoked(request), result);
+        return result;
+    }
+
+    private static <T> void completeWith(ListenableFuture<T> source, CompletableFuture<T> target) {
+        Futures.addCallback(source, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                target.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                target.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
     }
 }
@@ -0,0 +1,209 @@
+package com.example.eventservice.application.service;
+
+import com.example.eventservice.domain.model.EventEntity;
+import com.example.eventservice.domain.model.EventInventoryEntity;
+import com.example.eventservice.domain.model.PackageEntity;
+import com.example.eventservice.domain.model.PackageEventEntity;
+import com.example.eventservice.domain.model.UserEntity;
+import com.example.eventservice.domain.repository.EventInventoryRepository;
+import com.example.eventservice.domain.repository.EventRepository;
+import com.example.eventservice.domain.repository.PackageEventRepository;
+import com.example.eventservice.domain.repository.PackageRepository;
+import com.example.eventservice.domain.repository.TicketRepository;
+import com.example.eventservice.domain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Mii de cumparari simultane pe aceleasi locuri, contra unei baze MariaDB reale cu schema
+ * din docker/db: nu se vinde niciodata peste capacitate, iar contoarele raman egale cu biletele.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TicketIssuanceService.class, InventoryService.class, CatalogVersionService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TicketIssuanceServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS = 3000;
+
+    @Container
+    @ServiceConnection
+    static MariaDBContainer<?> mariadb = new MariaDBContainer<>("mariadb:11.4")
+            .withDatabaseName("eventdb")
+            .withCopyFileToContainer(MountableFile.forHostPath("../docker/db/01_schema.sql"),
+                    "/docker-entrypoint-initdb.d/01_schema.sql");
+
+    @Autowired
+    private TicketIssuanceService issuanceService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private PackageEventRepository packageEventRepository;
+
+    @Autowired
+    private EventInventoryRepository eventInventoryRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private UserEntity owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new UserEntity(null, "owner-" + UUID.randomUUID() + "@test",
+                "parola", UserEntity.Role.OWNER_EVENT));
+    }
+
+    @Test
+    void neverSellsMoreSeatsThanCapacity() throws Exception {
+        EventEntity mare = event(1000);
+        EventEntity mic = event(300);
+        PackageEntity pachet = pachet(400, mare, mic);
+
+        AtomicInteger direct = new AtomicInteger();
+        AtomicInteger prinPachet = new AtomicInteger();
+
+        runConcurrently(ATTEMPTS,
+                () -> issuanceService.issueForEvent(mare.getId()), direct,
+                () -> issuanceService.issueForPackage(pachet.getId()), prinPachet);
+
+        // evenimentul mare primeste destule cereri cat sa se umple
+        assertThat(direct.get() + prinPachet.get()).isEqualTo(1000);
+        assertThat(prinPachet.get()).isLessThanOrEqualTo(300);
+
+        assertThat(ticketRepository.countByEveniment(mare)).isEqualTo(direct.get());
+        assertThat(ticketRepository.countByPachet(pachet)).isEqualTo(prinPachet.get());
+
+        EventInventoryEntity inventarMare = eventInventoryRepository.findById(mare.getId()).orElseThrow();
+        assertThat(inventarMare.getLocuriVandute()).isEqualTo(direct.get());
+        assertThat(inventarMare.getLocuriPachete()).isEqualTo(prinPachet.get());
+
+        EventInventoryEntity inventarMic = eventInventoryRepository.findById(mic.getId()).orElseThrow();
+        assertThat(inventarMic.getLocuriVandute() + inventarMic.getLocuriPachete()).isLessThanOrEqualTo(300);
+    }
+
+    @Test
+    void missingInventoryRowIsNotReportedAsSoldOut() {
+        EventEntity eveniment = event(10);
+        PackageEntity pachet = pachet(10, eveniment);
+
+        eventInventoryRepository.deleteById(eveniment.getId());
+
+        assertThat(issuanceService.issueForPackage(pachet.getId()).getCod()).isNotBlank();
+        assertThat(eventInventoryRepository.findById(eveniment.getId()).orElseThrow().getLocuriPachete()).isEqualTo(1);
+    }
+
+    @Test
+    void catalogVersionChangesOnlyWhenSaleCommits() {
+        EventEntity eveniment = event(1);
+
+        CatalogVersionService.Version inainte = catalogVersionService.current(CatalogVersionService.Scope.TICKETS);
+        issuanceService.issueForEvent(eveniment.getId());
+        CatalogVersionService.Version dupaVanzare = catalogVersionService.current(CatalogVersionService.Scope.TICKETS);
+        assertThat(dupaVanzare.tag()).isNotEqualTo(inainte.tag());
+        assertThat(dupaVanzare.lastModified()).isAfterOrEqualTo(inainte.lastModified());
+
+        // evenimentul e plin: tranzactia se anuleaza, versiunea ramane aceeasi
+        assertThatThrownBy(() -> issuanceService.issueForEvent(eveniment.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(catalogVersionService.current(CatalogVersionService.Scope.TICKETS)).isEqualTo(dupaVanzare);
+    }
+
+    private EventEntity event(int locuri) {
+        EventEntity event = eventRepository.save(new EventEntity(null, owner,
+                "eveniment-" + UUID.randomUUID(), "Iasi", "test", locuri));
+        inventoryService.initEvent(event.getId());
+        return event;
+    }
+
+    private PackageEntity pachet(int locuri, EventEntity... evenimente) {
+        PackageEntity pachet = packageRepository.save(new PackageEntity(null, owner,
+                "pachet-" + UUID.randomUUID(), "Iasi", "test", locuri));
+        inventoryService.initPackage(pachet.getId());
+        for (EventEntity eveniment : evenimente) {
+            packageEventRepository.save(new PackageEventEntity(pachet, eveniment));
+        }
+        return pachet;
+    }
+
+    private void runConcurrently(int attemptsEach,
+                                 Runnable first, AtomicInteger firstOk,
+                                 Runnable second, AtomicInteger secondOk) throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < attemptsEach; i++) {
+            tasks.add(counting(first, firstOk));
+            tasks.add(counting(second, secondOk));
+        }
+        Collections.shuffle(tasks);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Runnable counting(Runnable purchase, AtomicInteger ok) {
+        return () -> {
+            try {
+                purchase.run();
+                ok.incrementAndGet();
+            } catch (IllegalStateException soldOut) {
+                // respinsa: nu mai sunt locuri
+            }
+        };
+    }
+}
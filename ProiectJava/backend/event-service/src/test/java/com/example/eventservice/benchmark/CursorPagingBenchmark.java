@@ -0,0 +1,155 @@
+package com.example.eventservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.utility.MountableFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costul paginii 1 fata de pagina 10.000 din GET /events, cu OFFSET (page/items_per_page)
+ * si cu cursor. Interogarile sunt cele generate de EventService.searchEvents /
+ * searchEventsAfter fara filtre: select cu owner-ul adus prin join, plus count-ul
+ * cerut de Page in modul clasic. Baza este un MariaDB din Testcontainers cu schema din
+ * docker/db si 100.000 de evenimente.
+ *
+ * Rulare: mvn -pl event-service -am test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.example.eventservice.benchmark.CursorPagingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CursorPagingBenchmark {
+
+    private static final int EVENTS = 100_000;
+    private static final int PAGE_SIZE = 10;
+
+    private static final String SELECT = "select e.id, e.nume, e.locatie, e.descriere, e.numarLocuri, e.versiune, "
+            + "u.id, u.email, u.rol from evenimente e left join utilizatori u on u.id = e.id_owner ";
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private MariaDBContainer<?> mariadb;
+    private Connection connection;
+    private PreparedStatement offsetQuery;
+    private PreparedStatement countQuery;
+    private PreparedStatement cursorQuery;
+    private int cursorId;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(CursorPagingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        mariadb = new MariaDBContainer<>("mariadb:11.4")
+                .withDatabaseName("eventdb")
+                .withCopyFileToContainer(MountableFile.forHostPath(schema()),
+                        "/docker-entrypoint-initdb.d/01_schema.sql");
+        mariadb.start();
+
+        connection = DriverManager.getConnection(mariadb.getJdbcUrl(), mariadb.getUsername(), mariadb.getPassword());
+        seed();
+
+        offsetQuery = connection.prepareStatement(SELECT + "order by e.id limit ? offset ?");
+        countQuery = connection.prepareStatement("select count(e.id) from evenimente e");
+        cursorQuery = connection.prepareStatement(SELECT + "where e.id > ? order by e.id limit ?");
+
+        // cursorul paginii cerute este id-ul ultimului rand de pe pagina anterioara
+        if (page > 1) {
+            try (PreparedStatement ps = connection.prepareStatement("select id from evenimente order by id limit 1 offset ?")) {
+                ps.setInt(1, (page - 1) * PAGE_SIZE - 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    cursorId = rs.getInt(1);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        mariadb.stop();
+    }
+
+    @Benchmark
+    public void offset(Blackhole bh) throws SQLException {
+        offsetQuery.setInt(1, PAGE_SIZE);
+        offsetQuery.setInt(2, (page - 1) * PAGE_SIZE);
+        consume(offsetQuery, bh);
+        consume(countQuery, bh);
+    }
+
+    @Benchmark
+    public void cursor(Blackhole bh) throws SQLException {
+        cursorQuery.setInt(1, cursorId);
+        // un rand in plus spune daca exista pagina urmatoare
+        cursorQuery.setInt(2, PAGE_SIZE + 1);
+        consume(cursorQuery, bh);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole bh) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt(1));
+                bh.consume(rs.getString(2));
+            }
+        }
+    }
+
+    // exec:java ruleaza din directorul backend, testele din directorul modulului
+    private static Path schema() {
+        Path fromBackend = Path.of("docker/db/01_schema.sql");
+        return Files.exists(fromBackend) ? fromBackend : Path.of("../docker/db/01_schema.sql");
+    }
+
+    private void seed() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("insert into utilizatori (email, parola, rol) values ('owner@bench', 'x', 'OWNER_EVENT')");
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into evenimente (id_owner, nume, locatie, descriere, numarLocuri) "
+                        + "values ((select id from utilizatori where email = 'owner@bench'), ?, 'Iasi', 'benchmark', 100)")) {
+            for (int i = 1; i <= EVENTS; i++) {
+                ps.setString(1, "eveniment-" + i);
+                ps.addBatch();
+                if (i % 5_000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.eventservice.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Test de incarcare pentru comparatia fir-per-cerere / fire virtuale: load.connections clienti
+ * (implicit 5.000) tin fiecare o conexiune deschisa si trimit cereri una dupa alta, fara pauza,
+ * timp de load.seconds. Raspunsurile din primele load.warmup-seconds nu intra in statistica.
+ * La final se afiseaza cererile pe secunda, erorile si latentele p50/p95/p99/max.
+ *
+ * Serviciul ruleaza separat, o data pentru fiecare mod (din directorul docker):
+ *   VIRTUAL_THREADS=false docker compose up -d event-service   (Tomcat, 200 de fire)
+ *   VIRTUAL_THREADS=true  docker compose up -d event-service   (un fir virtual per cerere)
+ * apoi:
+ *   mvn -pl event-service -am test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.eventservice.benchmark.ThreadModeLoadDriver
+ *       -Dload.url=http://localhost:8083/api/event-manager/events
+ *
+ * Pentru cereri autentificate (validare prin IDM): -Dload.authorization="Bearer ...".
+ * Cu 5.000 de conexiuni, limita de fisiere deschise a procesului (ulimit -n) trebuie marita.
+ */
+public final class ThreadModeLoadDriver {
+
+    private ThreadModeLoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI url = URI.create(System.getProperty("load.url", "http://localhost:8083/api/event-manager/events"));
+        int connections = Integer.getInteger("load.connections", 5_000);
+        int seconds = Integer.getInteger("load.seconds", 60);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 15);
+        String authorization = System.getProperty("load.authorization");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        HttpRequest request = builder.build();
+
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+
+        List<Latencies> perClient = new ArrayList<>(connections);
+        // clientii se inchid (si sunt asteptati) inaintea HttpClient-ului
+        try (HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (int i = 0; i < connections; i++) {
+                Latencies latencies = new Latencies();
+                perClient.add(latencies);
+                clients.submit(() -> {
+                    while (true) {
+                        long sent = System.nanoTime();
+                        if (sent - end >= 0) {
+                            return;
+                        }
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (sent - measureFrom < 0) {
+                                continue;
+                            }
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            } else {
+                                latencies.add(System.nanoTime() - sent);
+                            }
+                        } catch (Exception e) {
+                            if (sent - measureFrom >= 0) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            System.out.printf("%d conexiuni catre %s, %d s incalzire + %d s masurare%n",
+                    connections, url, warmupSeconds, seconds);
+        }
+
+        long[] all = perClient.stream()
+                .flatMapToLong(Latencies::stream)
+                .sorted()
+                .toArray();
+
+        System.out.printf("cereri reusite: %d (%.1f/s), erori: %d%n",
+                all.length, all.length / (double) seconds, errors.get());
+        if (all.length > 0) {
+            System.out.printf("latenta ms: p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // fiecare client isi scrie latentele in propriul tablou, fara sincronizare
+    private static final class Latencies {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        LongStream stream() {
+            return Arrays.stream(values, 0, size);
+        }
+    }
+}
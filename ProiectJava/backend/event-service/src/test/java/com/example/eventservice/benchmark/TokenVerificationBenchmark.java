@@ -0,0 +1,130 @@
+package com.example.eventservice.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.common.auth.JwtKeys;
+import com.example.common.auth.LocalTokenVerifier;
+import com.example.idm.grpc.IdmServiceGrpc;
+import com.example.idm.grpc.TokenRequest;
+import com.example.idm.grpc.ValidateTokenResponse;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificarea locala a unui token (LocalTokenVerifier) fata de apelul ValidateToken prin gRPC,
+ * pe un server local pe loopback. Serverul face aceeasi verificare de semnatura, astfel incat
+ * diferenta masurata este costul apelului: serializare, HTTP/2 si schimbarea de fir.
+ * In productie se adauga si latenta retelei pana la idm-service.
+ *
+ * Rulare: mvn -pl event-service -am test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.example.eventservice.benchmark.TokenVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret";
+
+    private LocalTokenVerifier localVerifier;
+    private Server server;
+    private ManagedChannel channel;
+    private IdmServiceGrpc.IdmServiceBlockingStub stub;
+    private String token;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TokenVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        localVerifier = new LocalTokenVerifier("", SECRET);
+        token = JWT.create()
+                .withIssuer(JwtKeys.ISSUER)
+                .withKeyId(JwtKeys.DEFAULT_KID)
+                .withSubject("42")
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(3600)))
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim("role", "CLIENT")
+                .withClaim("email", "client@bench")
+                .sign(Algorithm.HMAC256(SECRET));
+
+        LocalTokenVerifier serverVerifier = new LocalTokenVerifier("", SECRET);
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new IdmServiceGrpc.IdmServiceImplBase() {
+                    @Override
+                    public void validateToken(TokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
+                        responseObserver.onNext(serverVerifier.verify(request.getToken()));
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+
+        channel = Grpc.newChannelBuilderForAddress("localhost", server.getPort(), InsecureChannelCredentials.create())
+                .build();
+        stub = IdmServiceGrpc.newBlockingStub(channel);
+
+        if (!stub.validateToken(TokenRequest.newBuilder().setToken(token).build()).getValid()
+                || !localVerifier.verify(token).getValid()) {
+            throw new IllegalStateException("Token-ul de test nu este valid");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public ValidateTokenResponse local() {
+        return localVerifier.verify(token);
+    }
+
+    @Benchmark
+    public ValidateTokenResponse grpc() {
+        return stub.validateToken(TokenRequest.newBuilder().setToken(token).build());
+    }
+
+    // cereri simultane, ca la un serviciu incarcat: apelurile gRPC impart acelasi canal
+    @Benchmark
+    @Threads(16)
+    public ValidateTokenResponse localContended() {
+        return localVerifier.verify(token);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ValidateTokenResponse grpcContended() {
+        return stub.validateToken(TokenRequest.newBuilder().setToken(token).build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.gateway.auth;
+
+import com.example.common.auth.GatewayIdentityCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Header-ul intern de identitate trimis serviciilor dupa validarea token-ului in gateway;
+ * formatul si semnatura sunt in {@link GatewayIdentityCodec}, comun cu serviciile care il verifica.
+ * Fara gateway.identity.secret header-ul nu se emite.
+ */
+@Component
+public class GatewayIdentitySigner {
+
+    public static final String HEADER = GatewayIdentityCodec.HEADER;
+
+    private final GatewayIdentityCodec codec;
+
+    public GatewayIdentitySigner(@Value("${gateway.identity.secret:}") String secret,
+                                 @Value("${gateway.identity.ttl-seconds:30}") long ttlSeconds) {
+        this.codec = new GatewayIdentityCodec(secret, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return codec.isEnabled();
+    }
+
+    public String sign(String token, String sub, String role, String email, String jti, long tokenExp) {
+        return codec.sign(token, new GatewayIdentityCodec.Identity(sub, role, email, jti, tokenExp));
+    }
+}
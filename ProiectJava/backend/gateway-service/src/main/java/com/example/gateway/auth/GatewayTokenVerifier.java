@@ -0,0 +1,66 @@
+package com.example.gateway.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.common.auth.JwtKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Optional;
+
+/**
+ * Verificarea in gateway a token-urilor emise de idm-service (semnatura HMAC256 dupa "kid",
+ * emitent, expirare), cu aceeasi configurare a cheilor ca in servicii.
+ * Revocarea nu se verifica aici; serviciile din spate o verifica in continuare.
+ */
+@Component
+public class GatewayTokenVerifier {
+
+    private static final String BEARER = "Bearer ";
+    private static final String VERIFIED_ATTR = GatewayTokenVerifier.class.getName() + ".verified";
+
+    private final JwtKeys keys;
+
+    public GatewayTokenVerifier(@Value("${idm.jwt.keys:}") String keys,
+                                @Value("${idm.jwt.secret:}") String secret) {
+        this.keys = new JwtKeys(keys, secret);
+    }
+
+    public boolean isConfigured() {
+        return !keys.isEmpty();
+    }
+
+    /**
+     * Ca {@link #verifyBearer(String)}, cu rezultatul pastrat pe exchange, astfel incat
+     * filtrele aceleiasi cereri verifica semnatura o singura data.
+     */
+    public Optional<DecodedJWT> verify(ServerWebExchange exchange) {
+        Optional<DecodedJWT> verified = exchange.getAttribute(VERIFIED_ATTR);
+        if (verified == null) {
+            verified = verifyBearer(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+            exchange.getAttributes().put(VERIFIED_ATTR, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Token-ul din header-ul Authorization ("Bearer ..."), daca este semnat valid si neexpirat.
+     */
+    public Optional<DecodedJWT> verifyBearer(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER) || keys.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            DecodedJWT decoded = JWT.decode(authorizationHeader.substring(BEARER.length()).trim());
+            JWTVerifier verifier = keys.verifierFor(decoded);
+            return verifier != null ? Optional.of(verifier.verify(decoded)) : Optional.empty();
+        } catch (JWTVerificationException ex) {
+            return Optional.empty();
+        }
+    }
+}
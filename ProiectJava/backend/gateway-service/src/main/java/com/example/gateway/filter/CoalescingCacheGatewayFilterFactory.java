@@ -0,0 +1,400 @@
+package com.example.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache pentru GET-uri, aplicat pe rute, de exemplu:
+ * <pre>
+ * filters:
+ *   - CoalescingCache=5s,false,false     # ttl, vary pe Authorization, ignora no-cache
+ * </pre>
+ * Cererile identice care ajung simultan pe o intrare lipsa asteapta raspunsul primei
+ * cereri in loc sa mearga fiecare la serviciul din spate. Cu varyOnAuthorization,
+ * cheia include hash-ul header-ului Authorization si raspunsul primeste Vary: Authorization;
+ * fara el, raspunsurile private nu sunt nici salvate, nici impartite intre cereri.
+ * Memoria este limitata global (gateway.cache.max-bytes); se pastreaza doar raspunsurile
+ * 200 fara Set-Cookie, no-store sau no-cache (no-cache poate fi ignorat pe ruta), cel mult
+ * cat permite s-maxage / max-age. If-None-Match este rezolvat direct din cache.
+ */
+@Component
+public class CoalescingCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CoalescingCacheGatewayFilterFactory.Config> {
+
+    private static final String CACHE_HEADER = "X-Gateway-Cache";
+
+    // header-e care nu se reiau dintr-un raspuns salvat
+    private static final Set<String> NOT_STORED = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+            HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT),
+            CACHE_HEADER.toLowerCase(Locale.ROOT));
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long maxEntryBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter bypassed;
+
+    public CoalescingCacheGatewayFilterFactory(@Value("${gateway.cache.max-bytes:67108864}") long maxBytes,
+                                               @Value("${gateway.cache.max-entry-bytes:1048576}") long maxEntryBytes,
+                                               MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.maxEntryBytes = maxEntryBytes;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse value) -> value.body().length + key.length())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response-cache");
+        meterRegistry.gaugeMapSize("gateway.cache.in-flight", Tags.empty(), inFlight);
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        this.bypassed = requests(meterRegistry, "bypass");
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "varyOnAuthorization", "ignoreNoCache");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // inaintea NettyWriteResponseFilter, ca decoratorul de raspuns sa fie cel in care se scrie corpul
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        String cacheControl = request.getHeaders().getCacheControl();
+
+        if (!HttpMethod.GET.equals(request.getMethod())
+                || (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("no-cache")))) {
+            bypassed.increment();
+            return chain.filter(exchange);
+        }
+
+        String key = key(exchange, config);
+
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return replay(exchange, cached, config, "HIT");
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+
+        if (leader != null) {
+            coalesced.increment();
+            // daca prima cerere nu produce un raspuns reutilizabil, cererea merge singura mai departe
+            return leader.asMono()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> shared.isPresent()
+                            ? replay(exchange, shared.get(), config, "COALESCED")
+                            : chain.filter(exchange));
+        }
+
+        misses.increment();
+        return fetch(exchange, chain, config, key, sink)
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty();
+                });
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                             String key, Sinks.One<CachedResponse> sink) {
+        ServerHttpResponse original = exchange.getResponse();
+
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(Flux.from(body))
+                        .map(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            return bytes;
+                        })
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> {
+                            CachedResponse response = capture(getDelegate(), bytes, config);
+
+                            if (isShareable(response, config)) {
+                                if (isStorable(response, config)) {
+                                    cache.put(key, response);
+                                }
+                                inFlight.remove(key, sink);
+                                sink.tryEmitValue(response);
+                            }
+
+                            return writeBody(exchange, getDelegate(), response, config, "MISS");
+                        });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                // raspunsurile in flux (SSE etc.) nu se salveaza
+                return getDelegate().writeAndFlushWith(body);
+            }
+        };
+
+        // serviciul din spate trebuie sa trimita corpul complet, chiar daca clientul are deja o versiune
+        ServerHttpRequest upstreamRequest = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                })
+                .build();
+
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(capturing).build());
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, CachedResponse cached, Config config, String state) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+
+        // header-ele deja puse pe cererea curenta (CORS) au prioritate
+        HttpHeaders target = response.getHeaders();
+        cached.headers().forEach((name, values) -> {
+            if (HttpHeaders.VARY.equalsIgnoreCase(name)) {
+                values.forEach(value -> addVary(target, value));
+            } else if (!target.containsKey(name)) {
+                target.put(name, values);
+            }
+        });
+
+        return writeBody(exchange, response, cached, config, state);
+    }
+
+    private Mono<Void> writeBody(ServerWebExchange exchange, ServerHttpResponse response,
+                                 CachedResponse cached, Config config, String state) {
+        HttpHeaders headers = response.getHeaders();
+        headers.set(CACHE_HEADER, state);
+        if (config.isVaryOnAuthorization()) {
+            addVary(headers, HttpHeaders.AUTHORIZATION);
+        }
+
+        if (isNotModified(exchange.getRequest(), cached)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private CachedResponse capture(ServerHttpResponse response, byte[] body, Config config) {
+        HttpHeaders stored = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!NOT_STORED.contains(lower) && !lower.startsWith("access-control-")) {
+                stored.put(name, List.copyOf(values));
+            }
+        });
+
+        HttpStatusCode status = response.getStatusCode() != null ? response.getStatusCode() : HttpStatus.OK;
+        boolean setsCookie = response.getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+        Map<String, String> directives = directives(response.getHeaders().getCacheControl());
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(stored), body,
+                freshness(directives, config.getTtl()), setsCookie, directives);
+    }
+
+    // doar un 200 se imparte cu cererile care asteapta; la orice alt status fiecare merge singura mai departe.
+    // Raspunsurile private sunt pentru un singur utilizator: se pot folosi doar cand cheia contine Authorization
+    private static boolean isShareable(CachedResponse response, Config config) {
+        return response.status().value() == HttpStatus.OK.value()
+                && !response.setsCookie()
+                && !response.cacheControl().containsKey("no-store")
+                && (config.isVaryOnAuthorization() || !response.cacheControl().containsKey("private"));
+    }
+
+    private boolean isStorable(CachedResponse response, Config config) {
+        return response.status().value() == HttpStatus.OK.value()
+                && response.body().length <= maxEntryBytes
+                && (config.isIgnoreNoCache() || !response.cacheControl().containsKey("no-cache"))
+                && !response.ttl().isZero() && !response.ttl().isNegative();
+    }
+
+    // ttl-ul rutei, scurtat de s-maxage (sau max-age) trimis de serviciu
+    private static Duration freshness(Map<String, String> directives, Duration ttl) {
+        String maxAge = directives.containsKey("s-maxage") ? directives.get("s-maxage") : directives.get("max-age");
+        if (maxAge == null) {
+            return ttl;
+        }
+        try {
+            Duration allowed = Duration.ofSeconds(Long.parseLong(maxAge));
+            return allowed.compareTo(ttl) < 0 ? allowed : ttl;
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static Map<String, String> directives(String cacheControl) {
+        if (cacheControl == null) {
+            return Map.of();
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String part : cacheControl.split(",")) {
+            String directive = part.trim().toLowerCase(Locale.ROOT);
+            if (directive.isEmpty()) {
+                continue;
+            }
+            int eq = directive.indexOf('=');
+            if (eq < 0) {
+                directives.put(directive, "");
+            } else {
+                directives.put(directive.substring(0, eq).trim(), directive.substring(eq + 1).trim().replace("\"", ""));
+            }
+        }
+        return directives;
+    }
+
+    private static boolean isNotModified(ServerHttpRequest request, CachedResponse cached) {
+        String etag = cached.headers().getETag();
+        if (etag == null || cached.status().value() != HttpStatus.OK.value()) {
+            return false;
+        }
+
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(value) || strong.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addVary(HttpHeaders headers, String value) {
+        boolean present = headers.getVary().stream().anyMatch(existing -> existing.equalsIgnoreCase(value));
+        if (!present) {
+            headers.add(HttpHeaders.VARY, value);
+        }
+    }
+
+    private static String key(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+
+        StringBuilder key = new StringBuilder()
+                .append(route != null ? route.getId() : "").append('|')
+                .append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        key.append('|').append(String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT)));
+
+        if (config.isVaryOnAuthorization()) {
+            String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            key.append('|').append(authorization != null ? sha256(authorization) : "-");
+        }
+        return key.toString();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponibil", e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.cache.requests")
+                .description("Cereri GET prin filtrul CoalescingCache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+                                  Duration ttl, boolean setsCookie, Map<String, String> cacheControl) {}
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(5);
+        private boolean varyOnAuthorization;
+        private boolean ignoreNoCache;
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+        public boolean isVaryOnAuthorization() { return varyOnAuthorization; }
+        public void setVaryOnAuthorization(boolean varyOnAuthorization) { this.varyOnAuthorization = varyOnAuthorization; }
+
+        public boolean isIgnoreNoCache() { return ignoreNoCache; }
+        public void setIgnoreNoCache(boolean ignoreNoCache) { this.ignoreNoCache = ignoreNoCache; }
+    }
+}
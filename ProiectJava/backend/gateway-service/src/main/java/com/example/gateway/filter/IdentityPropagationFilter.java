@@ -0,0 +1,56 @@
+package com.example.gateway.filter;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.gateway.auth.GatewayIdentitySigner;
+import com.example.gateway.auth.GatewayTokenVerifier;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Pe toate rutele: header-ul de identitate venit din afara este eliminat, iar pentru un
+ * token valid gateway-ul adauga propriul header semnat, pe care serviciile il accepta
+ * in locul unei noi validari. Header-ul Authorization este transmis neschimbat.
+ */
+@Component
+public class IdentityPropagationFilter implements GlobalFilter, Ordered {
+
+    private final GatewayTokenVerifier tokenVerifier;
+    private final GatewayIdentitySigner identitySigner;
+
+    public IdentityPropagationFilter(GatewayTokenVerifier tokenVerifier, GatewayIdentitySigner identitySigner) {
+        this.tokenVerifier = tokenVerifier;
+        this.identitySigner = identitySigner;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Optional<DecodedJWT> jwt = identitySigner.isEnabled() ? tokenVerifier.verify(exchange) : Optional.empty();
+
+        ServerWebExchange forwarded = exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.remove(GatewayIdentitySigner.HEADER);
+                    jwt.ifPresent(token -> headers.set(GatewayIdentitySigner.HEADER, identitySigner.sign(
+                            token.getToken(),
+                            token.getSubject(),
+                            token.getClaim("role").asString(),
+                            token.getClaim("email").asString(),
+                            token.getId(),
+                            token.getExpiresAt() != null ? token.getExpiresAt().toInstant().getEpochSecond() : 0)));
+                }))
+                .build();
+
+        return chain.filter(forwarded);
+    }
+
+    @Override
+    public int getOrder() {
+        // inaintea filtrelor de ruta si a rutarii propriu-zise
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+}
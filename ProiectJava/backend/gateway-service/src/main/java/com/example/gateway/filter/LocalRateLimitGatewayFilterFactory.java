@@ -0,0 +1,214 @@
+package com.example.gateway.filter;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.gateway.auth.GatewayTokenVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitare locala (fara Redis) pe ruta, de exemplu:
+ * <pre>
+ * filters:
+ *   - LocalRateLimit=5,10,2     # cereri/secunda, rafala maxima, cereri simultane (0 = fara limita)
+ * </pre>
+ * Cheia este subiectul JWT-ului valid din Authorization sau, in lipsa lui, adresa IP a clientului.
+ * Bucket-ul de token-uri este tinut ca un singur AtomicLong (momentul teoretic al urmatoarei
+ * cereri, GCRA), actualizat prin compare-and-set, deci fara blocari. Token-ul se consuma doar
+ * dupa ce cererea a trecut de limita de cereri simultane. La depasire se raspunde 429 cu Retry-After.
+ * Un limitator cu cereri in curs este tinut si in afara cache-ului (pinned), ca evacuarea sau
+ * expirarea sa nu-i piarda contorul.
+ */
+@Component
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    private final GatewayTokenVerifier tokenVerifier;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Limiter> limiters;
+    private final Map<String, Limiter> pinned = new ConcurrentHashMap<>();
+
+    public LocalRateLimitGatewayFilterFactory(GatewayTokenVerifier tokenVerifier,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${gateway.rate-limit.max-keys:100000}") long maxKeys,
+                                              @Value("${gateway.rate-limit.idle-minutes:10}") long idleMinutes) {
+        super(Config.class);
+        this.tokenVerifier = tokenVerifier;
+        this.meterRegistry = meterRegistry;
+        this.limiters = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity", "maxInFlight");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() < 1) {
+            throw new IllegalArgumentException("LocalRateLimit: replenishRate > 0 si burstCapacity >= 1 sunt obligatorii.");
+        }
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.getReplenishRate());
+        long toleranceNanos = intervalNanos * (config.getBurstCapacity() - 1);
+
+        return (exchange, chain) -> filter(exchange, chain, config, intervalNanos, toleranceNanos);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              long intervalNanos, long toleranceNanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "";
+
+        String key = routeId + "|" + key(exchange);
+
+        if (config.getMaxInFlight() <= 0) {
+            long waitNanos = limiters.get(key, k -> new Limiter()).tryAcquire(intervalNanos, toleranceNanos);
+            if (waitNanos > 0) {
+                return reject(exchange, routeId, "rate", waitNanos);
+            }
+            return chain.filter(exchange);
+        }
+
+        Limiter limiter = enter(key, config.getMaxInFlight());
+        if (limiter == null) {
+            return reject(exchange, routeId, "concurrency", TimeUnit.SECONDS.toNanos(1));
+        }
+
+        long waitNanos = limiter.tryAcquire(intervalNanos, toleranceNanos);
+        if (waitNanos > 0) {
+            exit(key);
+            return reject(exchange, routeId, "rate", waitNanos);
+        }
+
+        return chain.filter(exchange).doFinally(signal -> exit(key));
+    }
+
+    // intrarile si iesirile pentru aceeasi cheie trec prin pinned.compute, deci un limitator
+    // cu cereri in curs este mereu cel gasit aici, chiar daca a fost scos din cache
+    private Limiter enter(String key, int maxInFlight) {
+        Limiter[] admitted = new Limiter[1];
+        pinned.compute(key, (k, current) -> {
+            Limiter limiter = current != null ? current : limiters.get(k, x -> new Limiter());
+            if (!limiter.tryEnter(maxInFlight)) {
+                return current;
+            }
+            admitted[0] = limiter;
+            return limiter;
+        });
+        return admitted[0];
+    }
+
+    private void exit(String key) {
+        pinned.computeIfPresent(key, (k, limiter) -> limiter.exit() == 0 ? null : limiter);
+    }
+
+    private String key(ServerWebExchange exchange) {
+        String subject = tokenVerifier.verify(exchange)
+                .map(DecodedJWT::getSubject)
+                .orElse(null);
+        if (subject != null) {
+            return "sub:" + subject;
+        }
+
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown");
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String reason, long waitNanos) {
+        Counter.builder("gateway.rate-limit.rejected")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return response.setComplete();
+    }
+
+    private static final class Limiter {
+
+        // momentul (System.nanoTime) de la care bucket-ul ar fi din nou plin cu o cerere in minus
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * 0 daca cererea e acceptata, altfel cat trebuie asteptat (ns) pana la urmatorul token.
+         */
+        long tryAcquire(long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long now = System.nanoTime();
+                long current = theoreticalArrival.get();
+                long tat = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+
+                long wait = tat - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (theoreticalArrival.compareAndSet(current, tat + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean tryEnter(int max) {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= max) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        int exit() {
+            return inFlight.decrementAndGet();
+        }
+    }
+
+    public static class Config {
+
+        private double replenishRate;
+        private int burstCapacity = 1;
+        private int maxInFlight;
+
+        public double getReplenishRate() { return replenishRate; }
+        public void setReplenishRate(double replenishRate) { this.replenishRate = replenishRate; }
+
+        public int getBurstCapacity() { return burstCapacity; }
+        public void setBurstCapacity(int burstCapacity) { this.burstCapacity = burstCapacity; }
+
+        public int getMaxInFlight() { return maxInFlight; }
+        public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    }
+}
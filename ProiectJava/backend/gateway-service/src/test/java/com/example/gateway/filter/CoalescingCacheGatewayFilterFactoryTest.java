@@ -0,0 +1,162 @@
+package com.example.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtrul in fata unui serviciu simulat: cate cereri ajung la serviciu si ce primeste clientul,
+ * pentru politicile Cache-Control trimise de event-service.
+ */
+class CoalescingCacheGatewayFilterFactoryTest {
+
+    private static final String EVENTS = "/api/event-manager/events";
+    private static final String BODY = "{\"_embedded\":{\"events\":[{\"id\":1}]}}";
+
+    private final CoalescingCacheGatewayFilterFactory factory =
+            new CoalescingCacheGatewayFilterFactory(1 << 20, 1 << 16, new SimpleMeterRegistry());
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void publicCatalogResponseIsServedFromCache() {
+        GatewayFilter filter = factory.apply(config(false, false));
+        GatewayFilterChain upstream = upstream("public, max-age=5");
+
+        MockServerWebExchange first = get(null);
+        filter.filter(first, upstream).block();
+        MockServerWebExchange second = get(null);
+        filter.filter(second, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Gateway-Cache")).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Gateway-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(second.getResponse().getHeaders().getCacheControl()).isEqualTo("public, max-age=5");
+    }
+
+    @Test
+    void privateResponseIsNotStoredWithoutAuthorizationInKey() {
+        GatewayFilter filter = factory.apply(config(false, false));
+        GatewayFilterChain upstream = upstream("private, max-age=5");
+
+        filter.filter(get("Bearer a"), upstream).block();
+        filter.filter(get("Bearer b"), upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void privateResponseIsStoredPerAuthorizationWhenKeyed() {
+        GatewayFilter filter = factory.apply(config(true, false));
+        GatewayFilterChain upstream = upstream("private, max-age=5");
+
+        filter.filter(get("Bearer a"), upstream).block();
+        MockServerWebExchange again = get("Bearer a");
+        filter.filter(again, upstream).block();
+        filter.filter(get("Bearer b"), upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(again.getResponse().getHeaders().getFirst("X-Gateway-Cache")).isEqualTo("HIT");
+        assertThat(again.getResponse().getHeaders().getVary()).contains(HttpHeaders.AUTHORIZATION);
+    }
+
+    @Test
+    void noCacheIsStoredOnlyWhenTheRouteIgnoresIt() {
+        GatewayFilterChain upstream = upstream("no-cache");
+
+        GatewayFilter strict = factory.apply(config(false, false));
+        strict.filter(get(null), upstream).block();
+        strict.filter(get(null), upstream).block();
+        assertThat(upstreamCalls).hasValue(2);
+
+        GatewayFilter overridden = factory.apply(config(false, true));
+        overridden.filter(get(null), upstream).block();
+        overridden.filter(get(null), upstream).block();
+        assertThat(upstreamCalls).hasValue(3);
+    }
+
+    @Test
+    void maxAgeZeroIsNotStored() {
+        GatewayFilter filter = factory.apply(config(false, false));
+        GatewayFilterChain upstream = upstream("public, max-age=0");
+
+        filter.filter(get(null), upstream).block();
+        filter.filter(get(null), upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void waitersAreNotServedTheLeadersError() {
+        GatewayFilter filter = factory.apply(config(false, false));
+        Sinks.Empty<Void> release = Sinks.empty();
+
+        // prima cerere ajunge la serviciu si primeste 502; a doua asteapta dupa ea
+        GatewayFilterChain upstream = exchange -> upstreamCalls.incrementAndGet() == 1
+                ? release.asMono().then(Mono.defer(() -> respond(exchange, HttpStatus.BAD_GATEWAY, "public, max-age=5")))
+                : respond(exchange, HttpStatus.OK, "public, max-age=5");
+
+        MockServerWebExchange leader = get(null);
+        CompletableFuture<Void> leaderDone = filter.filter(leader, upstream).toFuture();
+        MockServerWebExchange waiter = get(null);
+        CompletableFuture<Void> waiterDone = filter.filter(waiter, upstream).toFuture();
+
+        assertThat(upstreamCalls).hasValue(1);
+        release.tryEmitEmpty();
+        leaderDone.join();
+        waiterDone.join();
+
+        assertThat(leader.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+        assertThat(waiter.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(waiter.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private static CoalescingCacheGatewayFilterFactory.Config config(boolean varyOnAuthorization, boolean ignoreNoCache) {
+        CoalescingCacheGatewayFilterFactory.Config config = new CoalescingCacheGatewayFilterFactory.Config();
+        config.setVaryOnAuthorization(varyOnAuthorization);
+        config.setIgnoreNoCache(ignoreNoCache);
+        return config;
+    }
+
+    private static MockServerWebExchange get(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(EVENTS)
+                .accept(MediaType.APPLICATION_JSON);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private GatewayFilterChain upstream(String cacheControl) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            return respond(exchange, HttpStatus.OK, cacheControl);
+        };
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, HttpStatus status, String cacheControl) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setCacheControl(cacheControl);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+    }
+}
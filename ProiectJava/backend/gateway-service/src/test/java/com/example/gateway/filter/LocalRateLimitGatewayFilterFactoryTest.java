@@ -0,0 +1,73 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.auth.GatewayTokenVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitGatewayFilterFactoryTest {
+
+    private final LocalRateLimitGatewayFilterFactory factory = new LocalRateLimitGatewayFilterFactory(
+            new GatewayTokenVerifier("", "secret"), new SimpleMeterRegistry(), 1000, 10);
+
+    @Test
+    void requestRejectedByConcurrencyDoesNotSpendRateToken() {
+        // o cerere pe secunda, rafala de 2, cel mult una simultan
+        GatewayFilter filter = factory.apply(config(1, 2, 1));
+        Sinks.Empty<Void> slow = Sinks.empty();
+
+        MockServerWebExchange first = get();
+        filter.filter(first, exchange -> slow.asMono()).subscribe();
+
+        MockServerWebExchange second = get();
+        filter.filter(second, exchange -> Mono.empty()).block();
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        slow.tryEmitEmpty();
+
+        // al doilea token al rafalei a ramas pentru cererea urmatoare
+        MockServerWebExchange third = get();
+        filter.filter(third, exchange -> Mono.empty()).block();
+        assertThat(third.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void requestRejectedByRateReleasesItsConcurrencySlot() throws InterruptedException {
+        // 20 cereri pe secunda (una la 50 ms), fara rafala, cel mult una simultan
+        GatewayFilter filter = factory.apply(config(20, 1, 1));
+
+        filter.filter(get(), exchange -> Mono.empty()).block();
+
+        MockServerWebExchange limited = get();
+        filter.filter(limited, exchange -> Mono.empty()).block();
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        Thread.sleep(100);
+
+        MockServerWebExchange next = get();
+        filter.filter(next, exchange -> Mono.empty()).block();
+        assertThat(next.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private static LocalRateLimitGatewayFilterFactory.Config config(double rate, int burst, int maxInFlight) {
+        LocalRateLimitGatewayFilterFactory.Config config = new LocalRateLimitGatewayFilterFactory.Config();
+        config.setReplenishRate(rate);
+        config.setBurstCapacity(burst);
+        config.setMaxInFlight(maxInFlight);
+        return config;
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/event-manager/events")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000)));
+    }
+}
@@ -1,30 +1,83 @@
 package com.example.idm.config;
 
 import com.example.idm.db.UserRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import com.example.idm.jwt.JwtUtil;
 import com.example.idm.jwt.TokenBlackList;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class AppConfig {
 
-    @Bean
-    public UserRepository userRepository(
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(
             @Value("${spring.datasource.url}") String url,
             @Value("${spring.datasource.username}") String username,
-            @Value("${spring.datasource.password}") String password) {
-        return new UserRepository(url, username, password);
+            @Value("${spring.datasource.password}") String password,
+            @Value("${idm.datasource.pool-size:10}") int poolSize,
+            @Value("${idm.datasource.connection-timeout-ms:2000}") long connectionTimeoutMs) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("idm-pool");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(connectionTimeoutMs);
+
+        // statement-uri pregatite pe server, pastrate in cache pe fiecare conexiune
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+
+        return new HikariDataSource(config);
     }
 
     @Bean
-    public JwtUtil jwtUtil(@Value("${jwt.secret:secret_default}") String secret) {
-        return new JwtUtil(secret);
+    public UserRepository userRepository(DataSource dataSource) {
+        return new UserRepository(dataSource);
     }
 
     @Bean
-    public TokenBlackList tokenBlackList() {
-        return new TokenBlackList();
+    public JwtUtil jwtUtil(@Value("${jwt.secret:secret_default}") String secret,
+                           @Value("${jwt.keys:}") String keys,
+                           @Value("${jwt.active-kid:" + JwtUtil.DEFAULT_KID + "}") String activeKid) {
+        if (keys.isBlank()) {
+            return new JwtUtil(secret);
+        }
+        return new JwtUtil(JwtUtil.parseKeys(keys), activeKid);
+    }
+
+    @Bean
+    public TokenBlackList tokenBlackList(@Value("${idm.blacklist.max-entries:100000}") int maxEntries,
+                                         @Value("${idm.blacklist.max-per-subject:20}") int maxPerSubject) {
+        return new TokenBlackList(maxEntries, maxPerSubject);
+    }
+
+    /**
+     * Executor marginit pentru Login (JDBC blocant). Cand coada e plina, cererile
+     * sunt respinse cu RESOURCE_EXHAUSTED in loc sa astepte la nesfarsit.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService loginExecutor(@Value("${idm.login.threads:10}") int threads,
+                                         @Value("${idm.login.queue-size:200}") int queueSize,
+                                         MeterRegistry registry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> new Thread(r, "idm-login-" + counter.incrementAndGet()));
+        return ExecutorServiceMetrics.monitor(registry, executor, "idm.login");
     }
-}
\ No newline at end of file
+}
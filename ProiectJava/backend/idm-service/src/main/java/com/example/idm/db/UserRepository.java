@@ -1,23 +1,25 @@
 package com.example.idm.db;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.sql.*;
 import java.util.Base64;
 
 public class UserRepository {
-    private final String jdbcUrl;
-    private final String username;
-    private final String password;
-
-    public UserRepository(String jdbcUrl, String username, String password) {
-        this.jdbcUrl = jdbcUrl;
-        this.username = username;
-        this.password = password;
-    }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(jdbcUrl, username, password);
+    private static final Logger log = LoggerFactory.getLogger(UserRepository.class);
+
+    private static final String FIND_BY_EMAIL_AND_PASSWORD =
+            "SELECT id, email, parola, rol FROM utilizatori WHERE email = ? AND parola = ?";
+
+    private final DataSource dataSource;
+
+    public UserRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
     }
 
     private String hashPassword(String password) {
@@ -32,10 +34,10 @@ public class UserRepository {
 
     public User findByEmailAndPassword(String email, String rawPassword) {
         String hashedPassword = hashPassword(rawPassword);
-        String sql = "SELECT id, email, parola, rol FROM utilizatori WHERE email = ? AND parola = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        // conexiunea vine din pool; driverul refoloseste statement-ul pregatit pe server
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_EMAIL_AND_PASSWORD)) {
 
             ps.setString(1, email);
             ps.setString(2, hashedPassword);
@@ -51,8 +53,9 @@ public class UserRepository {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            log.error("Eroare la cautarea utilizatorului: {}", e.getMessage());
+            throw new IllegalStateException("Baza de date a utilizatorilor nu este disponibila", e);
         }
         return null;
     }
-}
\ No newline at end of file
+}
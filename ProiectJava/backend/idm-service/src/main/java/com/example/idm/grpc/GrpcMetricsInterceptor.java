@@ -0,0 +1,49 @@
+package com.example.idm.grpc;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durata fiecarui apel gRPC, ca histograma pe metoda si cod de stare (grpc.server.calls).
+ */
+@Component
+public class GrpcMetricsInterceptor implements ServerInterceptor {
+
+    private final MeterRegistry registry;
+
+    public GrpcMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        long start = System.nanoTime();
+        String method = call.getMethodDescriptor().getFullMethodName();
+
+        ServerCall<ReqT, RespT> timed = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                Timer.builder("grpc.server.calls")
+                        .tag("method", method)
+                        .tag("status", status.getCode().name())
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                super.close(status, trailers);
+            }
+        };
+
+        return next.startCall(timed, headers);
+    }
+}
@@ -1,36 +1,161 @@
 package com.example.idm.grpc;
 
 import io.grpc.Server;
-import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serverul gRPC al IDM. Porneste dupa initializarea contextului si, la oprire,
+ * nu mai accepta apeluri noi, inchide fluxurile de revocari si asteapta terminarea
+ * celor in curs (grpc.server.shutdown-grace-ms).
+ */
 @Component
-public class GrpcServerRunner implements CommandLineRunner {
+public class GrpcServerRunner implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerRunner.class);
 
     private final IdmServiceImpl idmService;
+    private final RevocationBroadcaster revocationBroadcaster;
+    private final GrpcMetricsInterceptor metricsInterceptor;
+    private final MeterRegistry registry;
 
     @Value("${grpc.server.port:9090}")
     private int port;
 
-    public GrpcServerRunner(IdmServiceImpl idmService) {
+    @Value("${grpc.server.executor-threads:16}")
+    private int executorThreads;
+
+    // 0 = valorile implicite Netty
+    @Value("${grpc.server.event-loop-threads:0}")
+    private int eventLoopThreads;
+
+    @Value("${grpc.server.flow-control-window:1048576}")
+    private int flowControlWindow;
+
+    @Value("${grpc.server.max-inbound-message-size:1048576}")
+    private int maxInboundMessageSize;
+
+    @Value("${grpc.server.max-concurrent-calls-per-connection:200}")
+    private int maxConcurrentCallsPerConnection;
+
+    @Value("${grpc.server.keepalive-time-ms:60000}")
+    private long keepAliveTimeMs;
+
+    @Value("${grpc.server.keepalive-timeout-ms:20000}")
+    private long keepAliveTimeoutMs;
+
+    @Value("${grpc.server.permit-keepalive-time-ms:10000}")
+    private long permitKeepAliveTimeMs;
+
+    @Value("${grpc.server.max-connection-age-ms:1800000}")
+    private long maxConnectionAgeMs;
+
+    @Value("${grpc.server.max-connection-age-grace-ms:30000}")
+    private long maxConnectionAgeGraceMs;
+
+    @Value("${grpc.server.shutdown-grace-ms:10000}")
+    private long shutdownGraceMs;
+
+    private Server server;
+    private ExecutorService executor;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+
+    public GrpcServerRunner(IdmServiceImpl idmService,
+                            RevocationBroadcaster revocationBroadcaster,
+                            GrpcMetricsInterceptor metricsInterceptor,
+                            MeterRegistry registry) {
         this.idmService = idmService;
+        this.revocationBroadcaster = revocationBroadcaster;
+        this.metricsInterceptor = metricsInterceptor;
+        this.registry = registry;
+    }
+
+    @Override
+    public synchronized void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = ExecutorServiceMetrics.monitor(registry,
+                Executors.newFixedThreadPool(executorThreads, r -> new Thread(r, "idm-grpc-" + counter.incrementAndGet())),
+                "idm.grpc.server");
+
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .addService(ServerInterceptors.intercept(idmService, metricsInterceptor))
+                .flowControlWindow(flowControlWindow)
+                .maxInboundMessageSize(maxInboundMessageSize)
+                .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+                .permitKeepAliveTime(permitKeepAliveTimeMs, TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                .maxConnectionAge(maxConnectionAgeMs, TimeUnit.MILLISECONDS)
+                .maxConnectionAgeGrace(maxConnectionAgeGraceMs, TimeUnit.MILLISECONDS);
+
+        if (eventLoopThreads > 0) {
+            bossGroup = new NioEventLoopGroup(1);
+            workerGroup = new NioEventLoopGroup(eventLoopThreads);
+            builder.bossEventLoopGroup(bossGroup)
+                    .workerEventLoopGroup(workerGroup)
+                    .channelType(NioServerSocketChannel.class);
+        }
+
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Serverul gRPC nu a putut porni pe portul " + port, e);
+        }
+        log.info("Server gRPC pornit pe portul {}", port);
     }
 
     @Override
-    public void run(String... args) {
-        new Thread(() -> {
-            try {
-                System.out.println("Starting gRPC Server on port " + port);
-                Server server = ServerBuilder.forPort(port)
-                        .addService(idmService)
-                        .build();
-                server.start();
-                server.awaitTermination();
-            } catch (Exception e) {
-                e.printStackTrace();
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+
+        server.shutdown();
+        // fluxurile WatchRevocations nu se termina singure
+        revocationBroadcaster.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Apelurile gRPC nu s-au terminat in {} ms, se opresc fortat", shutdownGraceMs);
+                server.shutdownNow();
+                server.awaitTermination(1, TimeUnit.SECONDS);
             }
-        }).start();
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        executor.shutdown();
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully();
+        }
+        server = null;
+        log.info("Server gRPC oprit");
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
     }
-}
\ No newline at end of file
+}
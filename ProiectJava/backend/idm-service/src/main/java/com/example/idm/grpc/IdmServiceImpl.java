@@ -1,35 +1,78 @@
 package com.example.idm.grpc;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.idm.db.User;
 import com.example.idm.db.UserRepository;
 import com.example.idm.jwt.JwtUtil;
 import com.example.idm.jwt.TokenBlackList;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import com.example.idm.grpc.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 public class IdmServiceImpl extends IdmServiceGrpc.IdmServiceImplBase {
 
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final TokenBlackList tokenBlackList;
-
-    public IdmServiceImpl(UserRepository userRepository, JwtUtil jwtUtil, TokenBlackList tokenBlackList) {
+    private final RevocationBroadcaster revocationBroadcaster;
+    private final Executor loginExecutor;
+    private final int maxBatchSize;
+
+    public IdmServiceImpl(UserRepository userRepository,
+                          JwtUtil jwtUtil,
+                          TokenBlackList tokenBlackList,
+                          RevocationBroadcaster revocationBroadcaster,
+                          @Qualifier("loginExecutor") Executor loginExecutor,
+                          @Value("${idm.validate.max-batch:500}") int maxBatchSize) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
         this.tokenBlackList = tokenBlackList;
+        this.revocationBroadcaster = revocationBroadcaster;
+        this.loginExecutor = loginExecutor;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
     public void login(LoginRequest request, StreamObserver<LoginResponse> responseObserver) {
+        // interogarea JDBC ruleaza pe un executor separat, ca sa nu ocupe firele gRPC ale ValidateToken
+        try {
+            loginExecutor.execute(() -> doLogin(request, responseObserver));
+        } catch (RejectedExecutionException ex) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Prea multe autentificari simultane")
+                    .asRuntimeException());
+        }
+    }
+
+    private void doLogin(LoginRequest request, StreamObserver<LoginResponse> responseObserver) {
+        if (responseObserver instanceof ServerCallStreamObserver<LoginResponse> call && call.isCancelled()) {
+            return;
+        }
+
         String username = request.getUsername();
         String password = request.getPassword();
 
-        User user = userRepository.findByEmailAndPassword(username, password);
+        User user;
+        try {
+            user = userRepository.findByEmailAndPassword(username, password);
+        } catch (IllegalStateException ex) {
+            responseObserver.onError(Status.UNAVAILABLE
+                    .withDescription("Serviciul de autentificare nu este disponibil")
+                    .asRuntimeException());
+            return;
+        }
 
         LoginResponse.Builder builder = LoginResponse.newBuilder();
 
@@ -54,19 +97,65 @@ public class IdmServiceImpl extends IdmServiceGrpc.IdmServiceImplBase {
 
     @Override
     public void validateToken(TokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
-        String token = request.getToken();
-        ValidateTokenResponse.Builder builder = ValidateTokenResponse.newBuilder();
+        responseObserver.onNext(validate(request.getToken()));
+        responseObserver.onCompleted();
+    }
 
-        if (tokenBlackList.isBlacklisted(token)) {
-            builder.setValid(false)
-                    .setMessage("Token is blacklisted");
-            responseObserver.onNext(builder.build());
-            responseObserver.onCompleted();
+    @Override
+    public void validateTokens(ValidateTokensRequest request, StreamObserver<ValidateTokensResponse> responseObserver) {
+        if (request.getTokensCount() > maxBatchSize) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Cel mult " + maxBatchSize + " token-uri per cerere")
+                    .asRuntimeException());
             return;
         }
 
+        ValidateTokensResponse.Builder builder = ValidateTokensResponse.newBuilder();
+        for (String token : request.getTokensList()) {
+            builder.addResults(validate(token));
+        }
+
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<ValidateTokenStreamRequest> validateTokenStream(
+            StreamObserver<ValidateTokenStreamResponse> responseObserver) {
+        // gRPC livreaza mesajele unui flux pe rand, deci raspunsurile pot fi trimise direct din onNext
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateTokenStreamRequest request) {
+                responseObserver.onNext(ValidateTokenStreamResponse.newBuilder()
+                        .setId(request.getId())
+                        .setResult(validate(request.getToken()))
+                        .build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // clientul a inchis fluxul
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    private ValidateTokenResponse validate(String token) {
+        ValidateTokenResponse.Builder builder = ValidateTokenResponse.newBuilder();
+
         try {
             DecodedJWT jwt = jwtUtil.validate(token);
+
+            if (tokenBlackList.isRevoked(jwt)) {
+                return builder.setValid(false)
+                        .setMessage("Token is blacklisted")
+                        .build();
+            }
+
             String sub = jwt.getSubject();
             String role = jwt.getClaim("role").asString();
             String email = jwt.getClaim("email").asString();
@@ -75,21 +164,32 @@ public class IdmServiceImpl extends IdmServiceGrpc.IdmServiceImplBase {
                     .setSub(sub)
                     .setRole(role)
                     .setEmail(email != null ? email : "")
+                    .setExp(jwt.getExpiresAt() != null ? jwt.getExpiresAt().toInstant().getEpochSecond() : 0)
+                    .setJti(jwt.getId() != null ? jwt.getId() : "")
                     .setMessage("OK");
         } catch (JWTVerificationException ex) {
-            tokenBlackList.blacklist(token);
+            // token-urile invalide sunt respinse oricum, nu ocupa loc in blacklist
             builder.setValid(false)
                     .setMessage("Token invalid or expired");
         }
 
-        responseObserver.onNext(builder.build());
-        responseObserver.onCompleted();
+        return builder.build();
     }
 
     @Override
     public void logout(TokenRequest request, StreamObserver<LogoutResponse> responseObserver) {
         String token = request.getToken();
-        tokenBlackList.blacklist(token);
+
+        try {
+            DecodedJWT jwt = jwtUtil.validate(token);
+            long exp = jwt.getExpiresAt() != null ? jwt.getExpiresAt().toInstant().getEpochSecond() : Long.MAX_VALUE;
+            TokenBlackList.Revocation revocation = tokenBlackList.blacklist(TokenBlackList.keyFor(jwt), jwt.getSubject(), exp);
+            if (revocation != null && (revocation.isSubjectCutoff() || (jwt.getId() != null && jwt.getExpiresAt() != null))) {
+                revocationBroadcaster.publish(revocation);
+            }
+        } catch (JWTVerificationException ignored) {
+            // token deja invalid sau expirat, nu trebuie anuntat
+        }
 
         LogoutResponse response = LogoutResponse.newBuilder()
                 .setSuccess(true)
@@ -99,4 +199,26 @@ public class IdmServiceImpl extends IdmServiceGrpc.IdmServiceImplBase {
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void checkRevoked(TokenRequest request, StreamObserver<RevocationStatusResponse> responseObserver) {
+        boolean revoked;
+        try {
+            revoked = tokenBlackList.isRevoked(JWT.decode(request.getToken()));
+        } catch (JWTDecodeException ex) {
+            revoked = false;
+        }
+
+        RevocationStatusResponse response = RevocationStatusResponse.newBuilder()
+                .setRevoked(revoked)
+                .build();
+
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void watchRevocations(WatchRevocationsRequest request, StreamObserver<RevocationEvent> responseObserver) {
+        revocationBroadcaster.subscribe(responseObserver);
+    }
+}
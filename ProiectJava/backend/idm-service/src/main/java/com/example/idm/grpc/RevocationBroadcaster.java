@@ -0,0 +1,156 @@
+package com.example.idm.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import com.example.idm.jwt.TokenBlackList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocarile (jti sau limita pe subiect, cu expirarea) transmise serviciilor abonate prin WatchRevocations.
+ * Un abonat nou primeste intai revocarile inca valabile din {@link TokenBlackList},
+ * apoi evenimentele noi. Evenimentele se trimit doar cat timp fluxul abonatului este
+ * gata (isReady); un abonat cu mai mult de idm.revocations.max-pending evenimente in
+ * asteptare este deconectat si, la reconectare, primeste din nou snapshot-ul.
+ */
+@Component
+public class RevocationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationBroadcaster.class);
+
+    private final TokenBlackList tokenBlackList;
+    private final int maxPending;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public RevocationBroadcaster(TokenBlackList tokenBlackList,
+                                 @Value("${idm.revocations.max-pending:10000}") int maxPending) {
+        this.tokenBlackList = tokenBlackList;
+        this.maxPending = maxPending;
+    }
+
+    public void publish(TokenBlackList.Revocation revocation) {
+        RevocationEvent event = toEvent(revocation);
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    public void subscribe(StreamObserver<RevocationEvent> observer) {
+        Subscriber subscriber = new Subscriber((ServerCallStreamObserver<RevocationEvent>) observer);
+
+        // abonat inainte de snapshot: o revocare concurenta poate ajunge de doua ori, dar nu se pierde
+        subscribers.add(subscriber);
+
+        tokenBlackList.forEachActive(revocation -> subscriber.enqueueSnapshot(toEvent(revocation)));
+
+        subscriber.enqueueSnapshot(RevocationEvent.newBuilder().setSnapshotComplete(true).build());
+        subscriber.drain();
+        log.info("Abonat nou la revocari ({} activi)", subscribers.size());
+    }
+
+    private static RevocationEvent toEvent(TokenBlackList.Revocation revocation) {
+        RevocationEvent.Builder event = RevocationEvent.newBuilder().setExp(revocation.exp());
+        if (revocation.isSubjectCutoff()) {
+            event.setSub(revocation.sub());
+        } else {
+            event.setJti(revocation.key());
+        }
+        return event.build();
+    }
+
+    /**
+     * Inchide fluxurile deschise; apelat de {@link GrpcServerRunner} inainte sa astepte
+     * terminarea apelurilor, altfel WatchRevocations ar tine oprirea pana la shutdown-grace-ms.
+     */
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.complete();
+        }
+        subscribers.clear();
+    }
+
+    private final class Subscriber {
+
+        private final ServerCallStreamObserver<RevocationEvent> call;
+        private final Queue<RevocationEvent> pending = new ArrayDeque<>();
+        private int snapshotSize;
+        private boolean closed;
+
+        Subscriber(ServerCallStreamObserver<RevocationEvent> call) {
+            this.call = call;
+            call.setOnCancelHandler(this::cancelled);
+            call.setOnReadyHandler(this::drain);
+        }
+
+        // snapshot-ul este limitat de capacitatea TokenBlackList, nu de max-pending
+        synchronized void enqueueSnapshot(RevocationEvent event) {
+            pending.add(event);
+            snapshotSize++;
+        }
+
+        synchronized void offer(RevocationEvent event) {
+            if (closed) {
+                return;
+            }
+            if (pending.size() >= snapshotSize + maxPending) {
+                log.warn("Abonatul la revocari nu citeste ({} evenimente in asteptare), este deconectat", pending.size());
+                fail(Status.RESOURCE_EXHAUSTED.withDescription("Prea multe revocari netransmise"));
+                return;
+            }
+            pending.add(event);
+            drain();
+        }
+
+        // StreamObserver nu este thread-safe; onNext doar cat timp transportul poate prelua mesaje
+        synchronized void drain() {
+            try {
+                while (!closed && call.isReady() && !pending.isEmpty()) {
+                    call.onNext(pending.poll());
+                    if (snapshotSize > 0) {
+                        snapshotSize--;
+                    }
+                }
+            } catch (RuntimeException e) {
+                closed = true;
+                subscribers.remove(this);
+            }
+        }
+
+        synchronized void complete() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            try {
+                call.onCompleted();
+            } catch (RuntimeException ignored) {
+            }
+        }
+
+        private void fail(Status status) {
+            closed = true;
+            pending.clear();
+            subscribers.remove(this);
+            try {
+                call.onError(status.asRuntimeException());
+            } catch (RuntimeException ignored) {
+            }
+        }
+
+        private synchronized void cancelled() {
+            closed = true;
+            pending.clear();
+            subscribers.remove(this);
+        }
+    }
+}
@@ -3,27 +3,44 @@ package com.example.idm.jwt;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public class JwtUtil {
 
-    private final Algorithm ALGORITHM;
+    public static final String DEFAULT_KID = "default";
+
     private static final String ISSUER = "idm-service";
     private static final long EXPIRATION_MINUTES = 60;
 
-    private final JWTVerifier verifier;
+    private final String activeKid;
+    private final Algorithm ALGORITHM;
+
+    // un verifier pentru fiecare cheie (kid); token-urile vechi raman valide dupa rotirea cheii active
+    private final Map<String, JWTVerifier> verifiers = new LinkedHashMap<>();
 
     public JwtUtil(String secret) {
-        this.ALGORITHM = Algorithm.HMAC256(secret);
+        this(Map.of(DEFAULT_KID, secret), DEFAULT_KID);
+    }
 
-        this.verifier = JWT.require(ALGORITHM)
+    public JwtUtil(Map<String, String> keys, String activeKid) {
+        if (!keys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("Cheia activa '" + activeKid + "' nu este configurata.");
+        }
+
+        keys.forEach((kid, secret) -> verifiers.put(kid, JWT.require(Algorithm.HMAC256(secret))
                 .withIssuer(ISSUER)
-                .build();
+                .build()));
+
+        this.activeKid = activeKid;
+        this.ALGORITHM = Algorithm.HMAC256(keys.get(activeKid));
     }
 
     public String generateToken(int userId, String role, String email) {
@@ -32,6 +49,7 @@ public class JwtUtil {
 
         return JWT.create()
                 .withIssuer(ISSUER)
+                .withKeyId(activeKid)
                 .withSubject(String.valueOf(userId))
                 .withExpiresAt(Date.from(exp))
                 .withJWTId(UUID.randomUUID().toString())
@@ -41,6 +59,29 @@ public class JwtUtil {
     }
 
     public DecodedJWT validate(String token) {
-        return verifier.verify(token);
+        DecodedJWT decoded = JWT.decode(token);
+        String kid = decoded.getKeyId() != null ? decoded.getKeyId() : DEFAULT_KID;
+
+        JWTVerifier verifier = verifiers.get(kid);
+        if (verifier == null) {
+            throw new JWTVerificationException("Unknown key id: " + kid);
+        }
+        return verifier.verify(decoded);
+    }
+
+    /** Format: "kid1:secret1,kid2:secret2". */
+    public static Map<String, String> parseKeys(String spec) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return keys;
+        }
+        for (String entry : spec.split(",")) {
+            int sep = entry.indexOf(':');
+            if (sep <= 0 || sep == entry.length() - 1) {
+                throw new IllegalArgumentException("Cheie JWT invalida: " + entry.trim());
+            }
+            keys.put(entry.substring(0, sep).trim(), entry.substring(sep + 1).trim());
+        }
+        return keys;
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,208 @@
 package com.example.idm.jwt;
 
-import java.util.Set;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Token-urile revocate, identificate prin jti (sau hash-ul token-ului daca lipseste jti),
+ * pastrate doar pana la expirarea lor. Intrarile sunt ordonate dupa expirare intr-o coada.
+ * Nicio revocare nu se pierde si login-ul nu este niciodata refuzat: cand un utilizator are deja
+ * maxPerSubject revocari individuale, sau lista a ajuns la maxEntries, revocarea lui devine o
+ * limita pe subiect ({@link Revocation#isSubjectCutoff()}) care invalideaza toate token-urile
+ * subiectului cu expirarea pana la cea a token-ului revocat, adica si pe cele emise inaintea lui.
+ * Astfel lista are cel mult maxEntries intrari individuale plus o limita per utilizator.
+ */
+public class TokenBlackList implements MeterBinder {
+
+    private final int maxEntries;
+    private final int maxPerSubject;
+
+    // citirile nu iau lock; coada de expirare si contoarele sunt modificate doar sub lock
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Map<String, Long> subjectCutoffs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> perSubject = new HashMap<>();
+    private final PriorityQueue<Entry> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(Entry::exp));
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong expiredEvictions = new AtomicLong();
+    private final AtomicLong subjectCutoffUpdates = new AtomicLong();
+
+    /** Cheia null inseamna limita pe subiect. */
+    private record Entry(String key, String sub, long exp) {}
+
+    /**
+     * O revocare inregistrata: fie token-ul cu cheia data, fie (key null) toate token-urile
+     * subiectului care expira cel tarziu la exp.
+     */
+    public record Revocation(String key, String sub, long exp) {
+
+        public boolean isSubjectCutoff() {
+            return key == null;
+        }
+    }
+
+    public TokenBlackList(int maxEntries, int maxPerSubject) {
+        if (maxEntries <= 0 || maxPerSubject <= 0) {
+            throw new IllegalArgumentException("idm.blacklist.max-entries si idm.blacklist.max-per-subject trebuie sa fie pozitive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxPerSubject = maxPerSubject;
+    }
+
+    /**
+     * Revoca token-ul; intoarce revocarea inregistrata, de anuntat abonatilor, sau null daca
+     * token-ul era deja expirat ori revocat.
+     */
+    public Revocation blacklist(String key, String sub, long exp) {
+        long now = Instant.now().getEpochSecond();
+        if (exp < now) {
+            return null;
+        }
+
+        lock.lock();
+        try {
+            pruneExpired(now);
+
+            if (revoked.containsKey(key) || isCutOff(sub, exp)) {
+                return null;
+            }
+
+            // fara expirare sau subiect o limita nu are sens; astfel de token-uri nu sunt emise de IDM
+            boolean individual = sub == null || exp == Long.MAX_VALUE
+                    || (revoked.size() < maxEntries && perSubject.getOrDefault(sub, 0) < maxPerSubject);
 
-public class TokenBlackList {
+            if (individual) {
+                revoked.put(key, exp);
+                expiryQueue.add(new Entry(key, sub, exp));
+                if (sub != null) {
+                    perSubject.merge(sub, 1, Integer::sum);
+                }
+                return new Revocation(key, sub, exp);
+            }
 
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+            // o singura intrare in coada per subiect; limita marita este reprogramata la expirare
+            if (subjectCutoffs.put(sub, exp) == null) {
+                expiryQueue.add(new Entry(null, sub, exp));
+            }
+            subjectCutoffUpdates.incrementAndGet();
+            return new Revocation(null, sub, exp);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRevoked(DecodedJWT jwt) {
+        if (isBlacklisted(keyFor(jwt))) {
+            return true;
+        }
+        return jwt.getExpiresAt() != null
+                && isCutOff(jwt.getSubject(), jwt.getExpiresAt().toInstant().getEpochSecond());
+    }
+
+    public boolean isBlacklisted(String key) {
+        Long exp = revoked.get(key);
+        return exp != null && exp >= Instant.now().getEpochSecond();
+    }
+
+    private boolean isCutOff(String sub, long exp) {
+        if (sub == null) {
+            return false;
+        }
+        Long cutoff = subjectCutoffs.get(sub);
+        return cutoff != null && exp <= cutoff && cutoff >= Instant.now().getEpochSecond();
+    }
+
+    public void forEachActive(Consumer<Revocation> action) {
+        long now = Instant.now().getEpochSecond();
+        revoked.forEach((key, exp) -> {
+            if (exp >= now) {
+                action.accept(new Revocation(key, null, exp));
+            }
+        });
+        subjectCutoffs.forEach((sub, exp) -> {
+            if (exp >= now) {
+                action.accept(new Revocation(null, sub, exp));
+            }
+        });
+    }
+
+    public void pruneExpired() {
+        lock.lock();
+        try {
+            pruneExpired(Instant.now().getEpochSecond());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pruneExpired(long now) {
+        while (!expiryQueue.isEmpty() && expiryQueue.peek().exp() < now) {
+            Entry expired = expiryQueue.poll();
+            if (expired.key() == null) {
+                long cutoff = subjectCutoffs.get(expired.sub());
+                if (cutoff < now) {
+                    subjectCutoffs.remove(expired.sub());
+                } else {
+                    expiryQueue.add(new Entry(null, expired.sub(), cutoff));
+                }
+                continue;
+            }
+            revoked.remove(expired.key(), expired.exp());
+            if (expired.sub() != null) {
+                perSubject.computeIfPresent(expired.sub(), (sub, count) -> count > 1 ? count - 1 : null);
+            }
+            expiredEvictions.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
 
-    public void blacklist(String token) {
-        blacklistedTokens.add(token);
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("idm.blacklist.size", revoked, Map::size)
+                .description("Revocari active")
+                .register(registry);
+        Gauge.builder("idm.blacklist.capacity", () -> maxEntries)
+                .register(registry);
+        Gauge.builder("idm.blacklist.subject.cutoffs", subjectCutoffs, Map::size)
+                .description("Utilizatori ale caror revocari sunt tinute ca limita pe subiect")
+                .register(registry);
+        FunctionCounter.builder("idm.blacklist.evictions", expiredEvictions, AtomicLong::get)
+                .tag("cause", "expired")
+                .register(registry);
+        FunctionCounter.builder("idm.blacklist.subject.cutoff.updates", subjectCutoffUpdates, AtomicLong::get)
+                .register(registry);
     }
 
-    public boolean isBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+    /** Cheia de revocare: jti-ul token-ului sau, in lipsa lui, hash-ul SHA-256 al token-ului. */
+    public static String keyFor(DecodedJWT jwt) {
+        if (jwt.getId() != null && !jwt.getId().isEmpty()) {
+            return jwt.getId();
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return "sha256:" + HexFormat.of().formatHex(digest.digest(jwt.getToken().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponibil", e);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package com.example.idm.benchmark;
+
+import com.example.idm.config.AppConfig;
+import com.example.idm.db.User;
+import com.example.idm.db.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.mariadb.jdbc.MariaDbDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.utility.MountableFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interogarea de login din UserRepository cu o conexiune noua la fiecare apel (ca inainte,
+ * prin DriverManager) fata de pool-ul Hikari configurat in AppConfig, cu 10 fire ca
+ * executorul de login implicit (idm.login.threads). Baza este un MariaDB din Testcontainers
+ * cu schema din docker/db si 1.000 de utilizatori.
+ *
+ * Rulare: mvn -pl idm-service -am test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.example.idm.benchmark.LoginThroughputBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LoginThroughputBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final String PASSWORD = "parola";
+
+    @Param({"driverManager", "hikari"})
+    public String connections;
+
+    private MariaDBContainer<?> mariadb;
+    private HikariDataSource pool;
+    private UserRepository repository;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(LoginThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mariadb = new MariaDBContainer<>("mariadb:11.4")
+                .withDatabaseName("eventdb")
+                .withCopyFileToContainer(MountableFile.forHostPath(schema()),
+                        "/docker-entrypoint-initdb.d/01_schema.sql");
+        mariadb.start();
+
+        if ("hikari".equals(connections)) {
+            pool = new AppConfig().dataSource(mariadb.getJdbcUrl(), mariadb.getUsername(), mariadb.getPassword(), 10, 2000);
+            repository = new UserRepository(pool);
+        } else {
+            // fara pool: fiecare getConnection deschide o conexiune TCP si se autentifica
+            MariaDbDataSource direct = new MariaDbDataSource(mariadb.getJdbcUrl());
+            direct.setUser(mariadb.getUsername());
+            direct.setPassword(mariadb.getPassword());
+            repository = new UserRepository(direct);
+        }
+
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        mariadb.stop();
+    }
+
+    @Benchmark
+    @Threads(10)
+    public User login() {
+        User user = repository.findByEmailAndPassword(
+                "client" + ThreadLocalRandom.current().nextInt(USERS) + "@bench", PASSWORD);
+        if (user == null) {
+            throw new IllegalStateException("Utilizatorul de test lipseste");
+        }
+        return user;
+    }
+
+    // exec:java ruleaza din directorul backend
+    private static Path schema() {
+        Path fromBackend = Path.of("docker/db/01_schema.sql");
+        return Files.exists(fromBackend) ? fromBackend : Path.of("../docker/db/01_schema.sql");
+    }
+
+    private void seed() throws Exception {
+        String hash = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(PASSWORD.getBytes(StandardCharsets.UTF_8)));
+
+        try (Connection connection = mariadb.createConnection("");
+             PreparedStatement ps = connection.prepareStatement(
+                     "insert into utilizatori (email, parola, rol) values (?, ?, 'CLIENT')")) {
+            for (int i = 0; i < USERS; i++) {
+                ps.setString(1, "client" + i + "@bench");
+                ps.setString(2, hash);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Utilizatorii de test nu au putut fi inserati", e);
+        }
+    }
+}
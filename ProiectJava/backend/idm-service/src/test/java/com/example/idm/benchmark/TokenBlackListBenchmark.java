@@ -0,0 +1,101 @@
+package com.example.idm.benchmark;
+
+import com.example.idm.jwt.TokenBlackList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cautarea si inserarea in TokenBlackList sub concurenta: ValidateToken/CheckRevoked citesc
+ * din mai multe fire gRPC, Logout insereaza. Insertiile au expirarea la 1-2 secunde, ca lista
+ * sa ramana in regim stabil (se curata la fiecare insertie) si sa nu atinga limita.
+ *
+ * Rulare: mvn -pl idm-service -am test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.example.idm.benchmark.TokenBlackListBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBlackListBenchmark {
+
+    @Param({"10000", "100000"})
+    public int revoked;
+
+    private TokenBlackList blackList;
+    private String[] present;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TokenBlackListBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blackList = new TokenBlackList(revoked * 2, 20);
+        present = new String[revoked];
+
+        long exp = Instant.now().getEpochSecond() + 3600;
+        for (int i = 0; i < revoked; i++) {
+            present[i] = UUID.randomUUID().toString();
+            blackList.blacklist(present[i], "user-" + i, exp + i % 600);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean lookupHit() {
+        return blackList.isBlacklisted(present[ThreadLocalRandom.current().nextInt(present.length)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean lookupMiss() {
+        return blackList.isBlacklisted("jti-" + ThreadLocalRandom.current().nextLong());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void insert() {
+        long id = sequence.incrementAndGet();
+        blackList.blacklist("logout-" + id, "user-" + id, Instant.now().getEpochSecond() + 1);
+    }
+
+    // trafic tipic: multe validari, putine logout-uri, pe aceeasi lista
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public boolean mixedLookup() {
+        return blackList.isBlacklisted(present[ThreadLocalRandom.current().nextInt(present.length)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedInsert() {
+        long id = sequence.incrementAndGet();
+        blackList.blacklist("logout-" + id, "user-" + id, Instant.now().getEpochSecond() + 1);
+    }
+}
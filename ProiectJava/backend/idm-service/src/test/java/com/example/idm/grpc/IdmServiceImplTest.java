@@ -0,0 +1,128 @@
+package com.example.idm.grpc;
+
+import com.example.idm.db.User;
+import com.example.idm.db.UserRepository;
+import com.example.idm.jwt.JwtUtil;
+import com.example.idm.jwt.TokenBlackList;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login si logout cand blacklist-ul este plin: revocarile nu se pierd, iar ceilalti utilizatori
+ * se pot autentifica in continuare.
+ */
+class IdmServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenBlackList tokenBlackList = new TokenBlackList(4, 2);
+    private IdmServiceImpl idm;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findByEmailAndPassword(anyString(), anyString())).thenAnswer(call -> {
+            String email = call.getArgument(0);
+            return new User(Math.abs(email.hashCode()), email, "", "CLIENT");
+        });
+
+        idm = new IdmServiceImpl(userRepository, new JwtUtil("secret-test"), tokenBlackList,
+                new RevocationBroadcaster(tokenBlackList, 100), Runnable::run, 500);
+    }
+
+    @Test
+    void fullBlacklistDoesNotBlockOtherUsers() {
+        List<String> revoked = new ArrayList<>();
+
+        // un singur utilizator care face login/logout in bucla
+        for (int i = 0; i < 50; i++) {
+            revoked.add(loginAndLogout("mallory@test"));
+        }
+        // alti utilizatori umplu restul listei si o depasesc
+        for (int i = 0; i < 5; i++) {
+            revoked.add(loginAndLogout("user" + i + "@test"));
+        }
+
+        assertThat(tokenBlackList.size()).isLessThanOrEqualTo(4);
+
+        LoginResponse alice = login("alice@test");
+        assertThat(alice.getSuccess()).isTrue();
+        assertThat(validate(alice.getToken()).getValid()).isTrue();
+
+        assertThat(revoked).allSatisfy(token -> {
+            assertThat(validate(token).getValid()).isFalse();
+            assertThat(checkRevoked(token)).isTrue();
+        });
+    }
+
+    @Test
+    void subjectCutoffLeavesOtherUsersTokensValid() {
+        String kept = login("bob@test").getToken();
+
+        for (int i = 0; i < 10; i++) {
+            loginAndLogout("mallory@test");
+        }
+
+        assertThat(validate(kept).getValid()).isTrue();
+        assertThat(checkRevoked(kept)).isFalse();
+    }
+
+    private String loginAndLogout(String email) {
+        String token = login(email).getToken();
+        Recorder<LogoutResponse> logout = new Recorder<>();
+        idm.logout(TokenRequest.newBuilder().setToken(token).build(), logout);
+        assertThat(logout.single().getSuccess()).isTrue();
+        return token;
+    }
+
+    private LoginResponse login(String email) {
+        Recorder<LoginResponse> response = new Recorder<>();
+        idm.login(LoginRequest.newBuilder().setUsername(email).setPassword("parola").build(), response);
+        return response.single();
+    }
+
+    private ValidateTokenResponse validate(String token) {
+        Recorder<ValidateTokenResponse> response = new Recorder<>();
+        idm.validateToken(TokenRequest.newBuilder().setToken(token).build(), response);
+        return response.single();
+    }
+
+    private boolean checkRevoked(String token) {
+        Recorder<RevocationStatusResponse> response = new Recorder<>();
+        idm.checkRevoked(TokenRequest.newBuilder().setToken(token).build(), response);
+        return response.single().getRevoked();
+    }
+
+    private static final class Recorder<T> implements StreamObserver<T> {
+
+        private final List<T> values = new ArrayList<>();
+        private Throwable error;
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+        T single() {
+            assertThat(error).isNull();
+            assertThat(values).hasSize(1);
+            return values.get(0);
+        }
+    }
+}
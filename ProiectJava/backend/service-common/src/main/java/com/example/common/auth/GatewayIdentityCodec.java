@@ -0,0 +1,112 @@
+package com.example.common.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Formatul header-ului intern de identitate, trimis serviciilor dupa ce token-ul a fost validat
+ * (de gateway sau de serviciul care face un apel intern):
+ * base64url(sub \n rol \n email \n jti \n exp-token \n exp-header-ms \n sha256(token)) "." base64url(HMAC-SHA256).
+ * Hash-ul token-ului leaga header-ul de Authorization-ul cu care vine, iar expirarea scurta
+ * limiteaza reutilizarea lui. Fara secret header-ul nu se emite si nu se accepta.
+ */
+public final class GatewayIdentityCodec {
+
+    public static final String HEADER = "X-Gateway-Identity";
+
+    public record Identity(String sub, String role, String email, String jti, long tokenExp) {}
+
+    private final byte[] secret;
+    private final long ttlMillis;
+
+    public GatewayIdentityCodec(String secret, long ttlSeconds) {
+        this.secret = secret != null ? secret.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public boolean isEnabled() {
+        return secret.length > 0;
+    }
+
+    public String sign(String token, Identity identity) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        long identityExp = System.currentTimeMillis() + ttlMillis;
+        if (identity.tokenExp() > 0) {
+            identityExp = Math.min(identityExp, identity.tokenExp() * 1000);
+        }
+
+        String payload = String.join("\n",
+                nullToEmpty(identity.sub()),
+                nullToEmpty(identity.role()),
+                nullToEmpty(identity.email()),
+                nullToEmpty(identity.jti()),
+                String.valueOf(identity.tokenExp()),
+                String.valueOf(identityExp),
+                Digests.sha256Hex(token));
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return encoder.encodeToString(bytes) + "." + encoder.encodeToString(Digests.hmacSha256(secret, bytes));
+    }
+
+    /**
+     * Identitatea din header, daca semnatura e corecta, nu a expirat si corespunde token-ului; altfel null.
+     */
+    public Identity verify(String header, String token) {
+        if (!isEnabled() || header == null || token == null) {
+            return null;
+        }
+
+        int dot = header.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(header.substring(0, dot));
+            signature = Base64.getUrlDecoder().decode(header.substring(dot + 1));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(Digests.hmacSha256(secret, payload), signature)) {
+            return null;
+        }
+
+        // sub, rol, email, jti, exp token (s), exp header (ms), sha256(token)
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\n", -1);
+        if (fields.length != 7) {
+            return null;
+        }
+
+        long tokenExp;
+        long identityExp;
+        try {
+            tokenExp = Long.parseLong(fields[4]);
+            identityExp = Long.parseLong(fields[5]);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (identityExp < now || (tokenExp > 0 && tokenExp * 1000 < now)) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(Digests.sha256Hex(token).getBytes(StandardCharsets.UTF_8),
+                fields[6].getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+
+        return new Identity(fields[0], fields[1], fields[2], fields[3], tokenExp);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.common.auth;
+
+import com.example.idm.grpc.ValidateTokenResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Header-ul de identitate ({@link GatewayIdentityCodec}) in serviciile MVC. Este acceptat doar
+ * cu semnatura HMAC corecta, neexpirat si legat prin hash de token-ul din Authorization; altfel
+ * cererea trece pe validarea obisnuita. Fara gateway.identity.secret header-ul este ignorat.
+ */
+@Component
+public class GatewayIdentityVerifier {
+
+    public static final String HEADER = GatewayIdentityCodec.HEADER;
+
+    private final GatewayIdentityCodec codec;
+
+    public GatewayIdentityVerifier(@Value("${gateway.identity.secret:}") String secret,
+                                   @Value("${gateway.identity.ttl-seconds:30}") long ttlSeconds) {
+        this.codec = new GatewayIdentityCodec(secret, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return codec.isEnabled();
+    }
+
+    /**
+     * Identitatea din header-ul cererii curente pentru acest token, sau null.
+     */
+    public ValidateTokenResponse verify(String token) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        GatewayIdentityCodec.Identity identity = codec.verify(currentHeader(), token);
+        if (identity == null) {
+            return null;
+        }
+
+        return ValidateTokenResponse.newBuilder()
+                .setValid(true)
+                .setSub(identity.sub())
+                .setRole(identity.role())
+                .setEmail(identity.email())
+                .setJti(identity.jti())
+                .setExp(identity.tokenExp())
+                .setMessage("OK")
+                .build();
+    }
+
+    /**
+     * Header pentru apelurile interne care transmit token-ul utilizatorului mai departe,
+     * astfel incat serviciul apelat nu il mai valideaza o data.
+     */
+    public String issue(String token, ValidateTokenResponse resp) {
+        if (!isEnabled() || resp == null || !resp.getValid()) {
+            return null;
+        }
+        return codec.sign(token, new GatewayIdentityCodec.Identity(
+                resp.getSub(), resp.getRole(), resp.getEmail(), resp.getJti(), resp.getExp()));
+    }
+
+    private static String currentHeader() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(HEADER);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.common.auth;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durata apelurilor catre IDM, ca histograma pe metoda si cod de stare (grpc.client.calls).
+ * Include reincercarile si hedging-ul facute de canal.
+ */
+public class GrpcClientMetricsInterceptor implements ClientInterceptor {
+
+    private final MeterRegistry registry;
+
+    public GrpcClientMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions,
+                                                               Channel next) {
+        String methodName = method.getFullMethodName();
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                long start = System.nanoTime();
+
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        Timer.builder("grpc.client.calls")
+                                .tag("method", methodName)
+                                .tag("status", status.getCode().name())
+                                .publishPercentileHistogram()
+                                .register(registry)
+                                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.common.auth;
+
+import com.example.idm.grpc.IdmServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.NameResolverRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class IdmGrpcConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IdmGrpcConfig.class);
+
+    // apelurile idempotente; Login si Logout nu se reincearca
+    private static final List<Map<String, Object>> IDEMPOTENT_METHODS = List.of(
+            Map.of("service", "idm.IdmService", "method", "ValidateToken"),
+            Map.of("service", "idm.IdmService", "method", "ValidateTokens"),
+            Map.of("service", "idm.IdmService", "method", "CheckRevoked")
+    );
+
+    /**
+     * idm.target permite mai multe instante IDM (dns:///idm-service:9090 sau
+     * static:///h1:9090,h2:9090); altfel se foloseste idm.host/idm.port.
+     * Implicit pick_first: adresele suplimentare sunt doar de rezerva. Fiecare IDM tine
+     * revocarile in memorie, iar WatchRevocations vine de la o singura instanta, deci cu
+     * round_robin un logout facut pe o instanta nu ar fi vazut de celelalte.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ManagedChannel idmChannel(
+            @Value("${idm.host:idm-service}") String host,
+            @Value("${idm.port:9090}") int port,
+            @Value("${idm.target:}") String target,
+            @Value("${idm.load-balancing:pick_first}") String loadBalancing,
+            @Value("${idm.keepalive-time-ms:30000}") long keepAliveTimeMs,
+            @Value("${idm.keepalive-timeout-ms:10000}") long keepAliveTimeoutMs,
+            @Value("${idm.retry.max-attempts:3}") int maxAttempts,
+            @Value("${idm.hedging.enabled:false}") boolean hedging,
+            @Value("${idm.hedging.delay-ms:50}") long hedgingDelayMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry registry
+    ) {
+        if (!"pick_first".equals(loadBalancing)) {
+            log.warn("idm.load-balancing={}: instantele IDM trebuie sa aiba aceleasi revocari, altfel un logout "
+                    + "facut pe una dintre ele nu este vazut de celelalte", loadBalancing);
+        }
+
+        ManagedChannelBuilder<?> builder;
+        if (target.isBlank()) {
+            builder = ManagedChannelBuilder.forAddress(host, port);
+        } else {
+            if (target.startsWith(StaticNameResolverProvider.SCHEME + ":")) {
+                NameResolverRegistry.getDefaultRegistry().register(new StaticNameResolverProvider());
+            }
+            builder = ManagedChannelBuilder.forTarget(target);
+        }
+
+        if (virtualThreads) {
+            // callback-urile apelurilor asincrone (loturi, flux de revocari) pe fire virtuale
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+
+        return builder
+                .usePlaintext()
+                .defaultLoadBalancingPolicy(loadBalancing)
+                .defaultServiceConfig(serviceConfig(maxAttempts, hedging, hedgingDelayMs))
+                .enableRetry()
+                .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+                .intercept(new GrpcClientMetricsInterceptor(registry))
+                .build();
+    }
+
+    private static Map<String, Object> serviceConfig(int maxAttempts, boolean hedging, long hedgingDelayMs) {
+        Map<String, Object> policy;
+        if (hedging) {
+            // o a doua cerere pleaca dupa hedgingDelayMs daca prima nu a raspuns
+            policy = Map.of("hedgingPolicy", Map.of(
+                    "maxAttempts", (double) maxAttempts,
+                    "hedgingDelay", (hedgingDelayMs / 1000.0) + "s",
+                    "nonFatalStatusCodes", List.of("UNAVAILABLE")
+            ));
+        } else {
+            policy = Map.of("retryPolicy", Map.of(
+                    "maxAttempts", (double) maxAttempts,
+                    "initialBackoff", "0.05s",
+                    "maxBackoff", "0.5s",
+                    "backoffMultiplier", 2.0,
+                    "retryableStatusCodes", List.of("UNAVAILABLE")
+            ));
+        }
+
+        Map<String, Object> methodConfig = new HashMap<>(policy);
+        methodConfig.put("name", IDEMPOTENT_METHODS);
+        return Map.of("methodConfig", List.of(methodConfig));
+    }
+
+    @Bean
+    public IdmServiceGrpc.IdmServiceBlockingStub idmBlockingStub(ManagedChannel idmChannel) {
+        return IdmServiceGrpc.newBlockingStub(idmChannel);
+    }
+
+    @Bean
+    public IdmServiceGrpc.IdmServiceFutureStub idmFutureStub(ManagedChannel idmChannel) {
+        return IdmServiceGrpc.newFutureStub(idmChannel);
+    }
+
+    @Bean
+    public IdmServiceGrpc.IdmServiceStub idmAsyncStub(ManagedChannel idmChannel) {
+        return IdmServiceGrpc.newStub(idmChannel);
+    }
+}
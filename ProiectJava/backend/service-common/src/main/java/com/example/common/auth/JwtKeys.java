@@ -0,0 +1,53 @@
+package com.example.common.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cheile de verificare pentru token-urile emise de idm-service, configurate la fel ca in
+ * idm-service ("kid1:secret1,kid2:secret2") sau cu un singur secret pentru kid-ul implicit.
+ * Fiecare verificator cere semnatura HMAC256 si emitentul idm-service; expirarea o verifica java-jwt.
+ */
+public final class JwtKeys {
+
+    public static final String ISSUER = "idm-service";
+    public static final String DEFAULT_KID = "default";
+
+    private final Map<String, JWTVerifier> verifiers = new HashMap<>();
+
+    public JwtKeys(String keys, String secret) {
+        if (keys != null && !keys.isBlank()) {
+            for (String entry : keys.split(",")) {
+                int sep = entry.indexOf(':');
+                if (sep <= 0 || sep == entry.length() - 1) {
+                    throw new IllegalArgumentException("Cheie JWT invalida: " + entry.trim());
+                }
+                addKey(entry.substring(0, sep).trim(), entry.substring(sep + 1).trim());
+            }
+        } else if (secret != null && !secret.isBlank()) {
+            addKey(DEFAULT_KID, secret);
+        }
+    }
+
+    private void addKey(String kid, String secret) {
+        verifiers.put(kid, JWT.require(Algorithm.HMAC256(secret))
+                .withIssuer(ISSUER)
+                .build());
+    }
+
+    public boolean isEmpty() {
+        return verifiers.isEmpty();
+    }
+
+    /**
+     * Verificatorul pentru cheia indicata de header-ul "kid" al token-ului, sau null daca nu e cunoscuta.
+     */
+    public JWTVerifier verifierFor(DecodedJWT decoded) {
+        return verifiers.get(decoded.getKeyId() != null ? decoded.getKeyId() : DEFAULT_KID);
+    }
+}
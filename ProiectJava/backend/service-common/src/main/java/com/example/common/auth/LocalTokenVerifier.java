@@ -0,0 +1,60 @@
+package com.example.common.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.idm.grpc.ValidateTokenResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verificarea locala a token-urilor emise de idm-service: semnatura HMAC256 cu cheia
+ * indicata de header-ul "kid", emitentul si expirarea (cheile: vezi {@link JwtKeys}).
+ */
+@Component
+public class LocalTokenVerifier {
+
+    private final JwtKeys keys;
+
+    public LocalTokenVerifier(@Value("${idm.jwt.keys:}") String keys,
+                              @Value("${idm.jwt.secret:}") String secret) {
+        this.keys = new JwtKeys(keys, secret);
+    }
+
+    public boolean isConfigured() {
+        return !keys.isEmpty();
+    }
+
+    public ValidateTokenResponse verify(String token) {
+        try {
+            DecodedJWT decoded = JWT.decode(token);
+            JWTVerifier verifier = keys.verifierFor(decoded);
+            if (verifier == null) {
+                return invalid("Unknown key id");
+            }
+
+            DecodedJWT jwt = verifier.verify(decoded);
+            String email = jwt.getClaim("email").asString();
+
+            return ValidateTokenResponse.newBuilder()
+                    .setValid(true)
+                    .setSub(jwt.getSubject())
+                    .setRole(jwt.getClaim("role").asString())
+                    .setEmail(email != null ? email : "")
+                    .setExp(jwt.getExpiresAt() != null ? jwt.getExpiresAt().toInstant().getEpochSecond() : 0)
+                    .setJti(jwt.getId() != null ? jwt.getId() : "")
+                    .setMessage("OK")
+                    .build();
+        } catch (JWTVerificationException ex) {
+            return invalid("Token invalid or expired");
+        }
+    }
+
+    private static ValidateTokenResponse invalid(String message) {
+        return ValidateTokenResponse.newBuilder()
+                .setValid(false)
+                .setMessage(message)
+                .build();
+    }
+}
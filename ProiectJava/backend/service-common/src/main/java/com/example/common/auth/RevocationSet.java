@@ -0,0 +1,64 @@
+package com.example.common.auth;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia locala a revocarilor anuntate de idm-service: jti -> expirare si, pentru utilizatorii
+ * cu multe revocari, limita pe subiect (sub -> expirarea maxima revocata).
+ * Cat timp fluxul nu este sincronizat, apelantii trebuie sa verifice revocarea la sursa.
+ */
+@Component
+public class RevocationSet {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Map<String, Long> subjectCutoffs = new ConcurrentHashMap<>();
+    private volatile boolean synced;
+
+    public void add(String jti, long exp) {
+        if (jti != null && !jti.isEmpty()) {
+            revoked.put(jti, exp);
+        }
+    }
+
+    public void addSubjectCutoff(String sub, long exp) {
+        if (sub != null && !sub.isEmpty()) {
+            subjectCutoffs.merge(sub, exp, Math::max);
+        }
+    }
+
+    public boolean isRevoked(String jti, String sub, long exp) {
+        if (jti != null && !jti.isEmpty() && revoked.containsKey(jti)) {
+            return true;
+        }
+        Long cutoff = sub != null ? subjectCutoffs.get(sub) : null;
+        return cutoff != null && exp > 0 && exp <= cutoff;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public void markSynced() {
+        synced = true;
+    }
+
+    public void markDisconnected() {
+        synced = false;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${idm.revocations.prune-ms:60000}")
+    public void pruneExpired() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(exp -> exp < now);
+        subjectCutoffs.values().removeIf(exp -> exp < now);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.common.auth;
+
+import com.example.idm.grpc.IdmServiceGrpc;
+import com.example.idm.grpc.RevocationEvent;
+import com.example.idm.grpc.WatchRevocationsRequest;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Abonamentul la WatchRevocations: tine RevocationSet la zi si se reconecteaza
+ * cu backoff exponential cand fluxul se inchide.
+ */
+@Component
+public class RevocationWatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationWatcher.class);
+
+    private static final long INITIAL_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final IdmServiceGrpc.IdmServiceStub asyncStub;
+    private final RevocationSet revocationSet;
+    private final TaskScheduler taskScheduler;
+    private final boolean enabled;
+
+    private volatile boolean running;
+    private volatile long backoffMs = INITIAL_BACKOFF_MS;
+    private volatile ClientCallStreamObserver<WatchRevocationsRequest> call;
+
+    public RevocationWatcher(IdmServiceGrpc.IdmServiceStub asyncStub,
+                             RevocationSet revocationSet,
+                             TaskScheduler taskScheduler,
+                             @Value("${idm.revocations.watch:true}") boolean enabled) {
+        this.asyncStub = asyncStub;
+        this.revocationSet = revocationSet;
+        this.taskScheduler = taskScheduler;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (enabled) {
+            connect();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        revocationSet.markDisconnected();
+        ClientCallStreamObserver<WatchRevocationsRequest> current = call;
+        if (current != null) {
+            current.cancel("shutdown", null);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+
+        asyncStub.watchRevocations(WatchRevocationsRequest.getDefaultInstance(),
+                new ClientResponseObserver<WatchRevocationsRequest, RevocationEvent>() {
+
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<WatchRevocationsRequest> requestStream) {
+                        call = requestStream;
+                    }
+
+                    @Override
+                    public void onNext(RevocationEvent event) {
+                        if (event.getSnapshotComplete()) {
+                            revocationSet.markSynced();
+                            backoffMs = INITIAL_BACKOFF_MS;
+                            log.info("Revocari sincronizate cu idm-service ({} active)", revocationSet.size());
+                        } else if (!event.getSub().isEmpty()) {
+                            revocationSet.addSubjectCutoff(event.getSub(), event.getExp());
+                        } else {
+                            revocationSet.add(event.getJti(), event.getExp());
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        revocationSet.markDisconnected();
+                        scheduleReconnect(t.getMessage());
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        revocationSet.markDisconnected();
+                        scheduleReconnect("stream inchis de server");
+                    }
+                });
+    }
+
+    private void scheduleReconnect(String reason) {
+        if (!running) {
+            return;
+        }
+        long delay = backoffMs;
+        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+
+        log.warn("Fluxul de revocari s-a intrerupt ({}), reconectare in {} ms", reason, delay);
+        // schedulerul Spring ruleaza pe fire virtuale cand spring.threads.virtual.enabled=true
+        taskScheduler.schedule(this::connect, Instant.now().plusMillis(delay));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.common.auth;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rezolvitor pentru tinte de forma static:///host1:9090,host2:9090,
+ * folosit cand instantele idm-service sunt cunoscute dinainte.
+ */
+class StaticNameResolverProvider extends NameResolverProvider {
+
+    static final String SCHEME = "static";
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    protected int priority() {
+        return 5;
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+
+        String path = targetUri.getPath();
+        List<EquivalentAddressGroup> addresses = new ArrayList<>();
+        for (String hostPort : path.substring(path.startsWith("/") ? 1 : 0).split(",")) {
+            String trimmed = hostPort.trim();
+            int colon = trimmed.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Adresa IDM invalida: " + trimmed);
+            }
+            addresses.add(new EquivalentAddressGroup(new InetSocketAddress(
+                    trimmed.substring(0, colon), Integer.parseInt(trimmed.substring(colon + 1)))));
+        }
+
+        String authority = ((InetSocketAddress) addresses.get(0).getAddresses().get(0)).getHostString();
+
+        return new NameResolver() {
+            @Override
+            public String getServiceAuthority() {
+                return authority;
+            }
+
+            @Override
+            public void start(Listener2 listener) {
+                listener.onResult(ResolutionResult.newBuilder().setAddresses(addresses).build());
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+    }
+}
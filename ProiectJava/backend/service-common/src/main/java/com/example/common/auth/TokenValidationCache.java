@@ -0,0 +1,79 @@
+package com.example.common.auth;
+
+import com.example.idm.grpc.ValidateTokenResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raspunsurile valide de la IDM, pastrate local pana la expirarea JWT-ului
+ * sau pana la TTL-ul configurat, oricare vine primul.
+ * Cheia este hash-ul SHA-256 al token-ului, nu token-ul insusi.
+ */
+@Component
+public class TokenValidationCache {
+
+    private final Cache<String, ValidateTokenResponse> cache;
+
+    public TokenValidationCache(@Value("${auth.token-cache.max-size:10000}") long maxSize,
+                                @Value("${auth.token-cache.ttl-seconds:60}") long ttlSeconds,
+                                MeterRegistry meterRegistry) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, ValidateTokenResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, ValidateTokenResponse value, long currentTime) {
+                        return remaining(value, ttlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, ValidateTokenResponse value, long currentTime, long currentDuration) {
+                        return remaining(value, ttlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, ValidateTokenResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.token-validation");
+    }
+
+    public ValidateTokenResponse get(String token) {
+        return cache.getIfPresent(hash(token));
+    }
+
+    public void put(String token, ValidateTokenResponse response) {
+        if (response.getValid()) {
+            cache.put(hash(token), response);
+        }
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(hash(token));
+    }
+
+    private static long remaining(ValidateTokenResponse value, long ttlNanos) {
+        if (value.getExp() <= 0) {
+            return ttlNanos;
+        }
+        long untilExp = TimeUnit.SECONDS.toNanos(value.getExp() - Instant.now().getEpochSecond());
+        return Math.max(0, Math.min(ttlNanos, untilExp));
+    }
+
+    private static String hash(String token) {
+        return Digests.sha256Hex(token);
+    }
+}
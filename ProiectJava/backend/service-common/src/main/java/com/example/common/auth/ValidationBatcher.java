@@ -0,0 +1,120 @@
+package com.example.common.auth;
+
+import com.example.idm.grpc.IdmServiceGrpc;
+import com.example.idm.grpc.ValidateTokenResponse;
+import com.example.idm.grpc.ValidateTokensRequest;
+import com.example.idm.grpc.ValidateTokensResponse;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Grupeaza validarile distincte in apeluri ValidateTokens. Cat timp sunt deja
+ * maxInFlight loturi trimise, cererile noi se aduna si pleaca impreuna in lotul
+ * urmator; la trafic mic fiecare token pleaca imediat, fara asteptare.
+ */
+public class ValidationBatcher {
+
+    private record Pending(String token, CompletableFuture<ValidateTokenResponse> result) {}
+
+    private final IdmServiceGrpc.IdmServiceFutureStub stub;
+    private final int maxBatchSize;
+    private final int maxInFlight;
+    private final long deadlineMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Pending> pending = new ArrayList<>();
+    private int inFlight;
+
+    public ValidationBatcher(IdmServiceGrpc.IdmServiceFutureStub stub, int maxBatchSize, int maxInFlight, long deadlineMs) {
+        this.stub = stub;
+        this.maxBatchSize = maxBatchSize;
+        this.maxInFlight = maxInFlight;
+        this.deadlineMs = deadlineMs;
+    }
+
+    public void submit(String token, CompletableFuture<ValidateTokenResponse> result) {
+        lock.lock();
+        try {
+            pending.add(new Pending(token, result));
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<List<Pending>> batches = new ArrayList<>();
+
+        lock.lock();
+        try {
+            while (inFlight < maxInFlight && !pending.isEmpty()) {
+                List<Pending> head = pending.subList(0, Math.min(maxBatchSize, pending.size()));
+                batches.add(new ArrayList<>(head));
+                head.clear();
+                inFlight++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (List<Pending> batch : batches) {
+            send(batch);
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        ValidateTokensRequest.Builder request = ValidateTokensRequest.newBuilder();
+        for (Pending p : batch) {
+            request.addTokens(p.token());
+        }
+
+        Futures.addCallback(
+                stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).validateTokens(request.build()),
+                new FutureCallback<ValidateTokensResponse>() {
+                    @Override
+                    public void onSuccess(ValidateTokensResponse response) {
+                        if (response.getResultsCount() != batch.size()) {
+                            fail(Status.INTERNAL
+                                    .withDescription("Raspuns ValidateTokens incomplet")
+                                    .asRuntimeException());
+                            return;
+                        }
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).result().complete(response.getResults(i));
+                        }
+                        finished();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        fail(t);
+                    }
+
+                    private void fail(Throwable t) {
+                        for (Pending p : batch) {
+                            p.result().completeExceptionally(t);
+                        }
+                        finished();
+                    }
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    private void finished() {
+        lock.lock();
+        try {
+            inFlight--;
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+}
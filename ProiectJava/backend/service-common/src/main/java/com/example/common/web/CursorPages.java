@@ -0,0 +1,74 @@
+package com.example.common.web;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginare cu cursor (keyset): clientul primeste un cursor opac cu ultima cheie vazuta
+ * si cere pagina urmatoare prin link-ul "next", fara a sari peste randurile deja citite.
+ * Raspunsul pastreaza forma PagedModel, dar fara metadatele "page": in modul cursor totalul
+ * si numarul paginii nu sunt cunoscute, iar sfarsitul listei este semnalat de lipsa link-ului "next".
+ */
+public final class CursorPages {
+
+    private CursorPages() {}
+
+    public static String encode(Object key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor invalid.");
+        }
+    }
+
+    /**
+     * Cheia din cursor convertita de parser (de exemplu Integer::valueOf); null pentru prima pagina.
+     */
+    public static <K> K decode(String cursor, Function<String, K> parser) {
+        String key = decode(cursor);
+        if (key == null) {
+            return null;
+        }
+        try {
+            return parser.apply(key);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor invalid.");
+        }
+    }
+
+    public static <T, R> PagedModel<R> toModel(Slice<T> slice, Function<T, R> mapper, Function<T, ?> key) {
+        List<R> content = slice.getContent().stream().map(mapper).toList();
+
+        // fara PageMetadata: un totalElements completat cu marimea paginii ar fi citit ca total real
+        PagedModel<R> model = PagedModel.of(content);
+
+        model.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+
+        if (slice.hasNext()) {
+            T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("page")
+                    .replaceQueryParam("cursor", encode(key.apply(last)))
+                    .toUriString();
+            model.add(Link.of(next, IanaLinkRelations.NEXT));
+        }
+
+        return model;
+    }
+}
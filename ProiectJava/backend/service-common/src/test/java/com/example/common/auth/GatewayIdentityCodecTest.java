@@ -0,0 +1,57 @@
+package com.example.common.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayIdentityCodecTest {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9.e30.semnatura";
+
+    private final GatewayIdentityCodec codec = new GatewayIdentityCodec("secret-gateway", 30);
+
+    @Test
+    void signedIdentityVerifiesForTheSameToken() {
+        long exp = Instant.now().plusSeconds(600).getEpochSecond();
+        GatewayIdentityCodec.Identity identity = new GatewayIdentityCodec.Identity("7", "CLIENT", "ana@test", "jti-1", exp);
+
+        assertThat(codec.verify(codec.sign(TOKEN, identity), TOKEN)).isEqualTo(identity);
+    }
+
+    @Test
+    void headerIsBoundToItsToken() {
+        String header = codec.sign(TOKEN, identity(Instant.now().plusSeconds(600).getEpochSecond()));
+
+        assertThat(codec.verify(header, TOKEN + "x")).isNull();
+    }
+
+    @Test
+    void headerSignedWithAnotherSecretIsRejected() {
+        String header = new GatewayIdentityCodec("alt-secret", 30)
+                .sign(TOKEN, identity(Instant.now().plusSeconds(600).getEpochSecond()));
+
+        assertThat(codec.verify(header, TOKEN)).isNull();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String header = codec.sign(TOKEN, identity(Instant.now().minusSeconds(1).getEpochSecond()));
+
+        assertThat(codec.verify(header, TOKEN)).isNull();
+    }
+
+    @Test
+    void withoutSecretNothingIsSignedOrAccepted() {
+        GatewayIdentityCodec disabled = new GatewayIdentityCodec("", 30);
+        String header = codec.sign(TOKEN, identity(Instant.now().plusSeconds(600).getEpochSecond()));
+
+        assertThat(disabled.sign(TOKEN, identity(0))).isNull();
+        assertThat(disabled.verify(header, TOKEN)).isNull();
+    }
+
+    private static GatewayIdentityCodec.Identity identity(long exp) {
+        return new GatewayIdentityCodec.Identity("7", "CLIENT", "ana@test", "jti-1", exp);
+    }
+}